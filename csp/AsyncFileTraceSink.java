@@ -0,0 +1,99 @@
+package csp;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Streams every recorded schedule to a file from a background writer thread.
+ * Schedules wait in a bounded queue, so memory use stays fixed;
+ * a search thread only waits if the writer falls a full queue behind.
+ * 
+ * Appends to the file, nothing is kept in memory once written.
+ */
+public class AsyncFileTraceSink implements TraceSink {
+	private static final String END_OF_TRACE = new String("END_OF_TRACE");
+	private static final int QUEUE_CAPACITY = 1024;
+
+	private File file;
+	private BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+	private Thread writer;
+	private volatile boolean closed;
+
+	/**
+	 * Starts the writer thread for the file.
+	 * @param f File schedules are appended to.
+	 */
+	AsyncFileTraceSink(File f){
+		this.file = f;
+		this.writer = new Thread(this::writeQueue, "trace-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Writer thread loop: writes schedules from the queue until the end of trace.
+	 * If the file cannot be written, remaining schedules are discarded.
+	 */
+	private void writeQueue() {
+		try (BufferedWriter bw = new BufferedWriter(new FileWriter(this.file, true))) {
+			String s = this.queue.take();
+			while(s != END_OF_TRACE) {
+				bw.write(s);
+				if(this.queue.isEmpty()) {
+					bw.flush();
+				}
+				s = this.queue.take();
+			}
+		} catch (IOException e) {
+			this.closed = true;
+			this.queue.clear();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return !this.closed;
+	}
+
+	@Override
+	public void record(Schedule schedule) {
+		if(this.closed) {
+			return;
+		}
+		try {
+			this.queue.put(schedule.toString() + "\n");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Schedules are written to file instead of being kept, so the trace is empty.
+	 */
+	@Override
+	public String getTrace() {
+		return "";
+	}
+
+	/**
+	 * Waits for every recorded schedule to be written, then stops the writer thread.
+	 */
+	@Override
+	public void close() {
+		if(this.closed) {
+			return;
+		}
+		this.closed = true;
+		try {
+			this.queue.put(END_OF_TRACE);
+			this.writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,537 @@
+package csp;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Complete search for a schedule with no conflicts.
+ * Unlike the local searches, it can prove that no schedule exists.
+ *
+ * 	Variable ordering: Minimum Remaining Values,
+ * 		the unassigned course with the fewest values left, ties broken by most constraints.
+ * 	Value ordering: domain order, earliest semester first.
+ * 	Forward Checking: after each assignment, removes values of unassigned courses
+ * 		that break a "<" or "<=" constraint with it, or are on the same day of the same semester.
+ * 		Backtracks as soon as a course has no values left.
+ *
+ * Before searching, the semester bounds of the "<" and "<=" constraints are propagated,
+ * so cycles of constraints are found without searching.
+ * The search is iterative, and stops when the node or time budget runs out.
+ */
+public class BacktrackingSolver {
+	private static final int DAYS = Day.values().length;
+	private static final int COMPLETED = -2;
+
+	/**
+	 * Result of the last search.
+	 */
+	public enum Status {SOLVED, INFEASIBLE, BUDGET_EXHAUSTED};
+
+	// used in constructor
+	private ScheduleModel model;
+	private CompiledConstraintList constraints;
+
+	// course index, domain index  |  value, semester ID, & semester day index of the value
+	private int[][] values;
+	private int[][] valueSemesters;
+	private int[][] valueSemesterDays;
+	// semester day index  |  course & domain index of every value on that day of the semester
+	private int[][] semesterDayCourses;
+	private int[][] semesterDayValues;
+
+	// search state
+	private boolean[][] removed;	// course index, domain index  |  value removed by the request, bounds, or forward checking
+	private int[] remainingValues;	// course index  |  values not removed
+	private int[] assignment;		// course index  |  domain index, -1 if unassigned, -2 if completed
+	private int coursesToSchedule;
+	// removed values, in order, to restore on backtrack
+	private int[] trailCourses;
+	private int[] trailValues;
+	private int trailSize;
+
+	// Settable budget
+	private long maxNodes = 10_000_000;
+	private long maxMillis = 10_000;
+
+	// stats of last search
+	private Status status;
+	private long nodeCount;
+	private long backtrackCount;
+	private long elapsedMillis;
+
+	/**
+	 * An instantiation will use the same input lists for each search.
+	 * @param c
+	 * @param courseListIn
+	 * @param sl
+	 */
+	BacktrackingSolver(ConstraintList c, CourseList courseListIn, SemesterList sl){
+		this(new ScheduleModel(c, courseListIn, sl));
+	}
+
+	/**
+	 * An instantiation will use the same model for each search.
+	 * The model can be shared with other solvers, each solver must only be used by one thread at a time.
+	 * @param model
+	 */
+	BacktrackingSolver(ScheduleModel model){
+		this.model = model;
+		this.constraints = model.getConstraints();
+		int courseCount = model.getCourseCount();
+		int semesterDayCount = model.getSemesterList().numberOfSemesters() * DAYS;
+		this.values = new int[courseCount][];
+		this.valueSemesters = new int[courseCount][];
+		this.valueSemesterDays = new int[courseCount][];
+		for(int i = 0; i < courseCount; i++) {
+			this.values[i] = model.getValues(i);
+			this.valueSemesters[i] = model.getValueSemesters(i);
+			this.valueSemesterDays[i] = model.getValueSemesterDays(i);
+		}
+		this.semesterDayCourses = new int[semesterDayCount][];
+		this.semesterDayValues = new int[semesterDayCount][];
+		for(int i = 0; i < semesterDayCount; i++) {
+			this.semesterDayCourses[i] = model.getSemesterDayCourses(i);
+			this.semesterDayValues[i] = model.getSemesterDayValues(i);
+		}
+		this.trailCourses = new int[model.getTotalValues()];
+		this.trailValues = new int[model.getTotalValues()];
+	}
+
+	/**
+	 * Searches for a schedule with no conflicts, within the node and time budget.
+	 * Use getStatus() to tell an infeasible catalog from a budget that ran out.
+	 * @return the schedule found, or null if none found.
+	 */
+	public Schedule solve() {
+		if(search(null) != Status.SOLVED) {
+			return null;
+		}
+		return createSchedule();
+	}
+
+	/**
+	 * Searches for a schedule of a student's request with no conflicts, within the node and time budget.
+	 * Completed courses are not scheduled, fixed courses only keep their fixed value,
+	 * and values in excluded semesters are removed, before searching.
+	 * If solved, the values are returned by getCourseValueMap().
+	 * @param request or null to schedule every course with no restrictions
+	 * @return status of the search
+	 * @throws IllegalArgumentException if the request names a course not in the model
+	 */
+	public Status search(PlanRequest request) {
+		long start = System.currentTimeMillis();
+		long deadline = start + this.maxMillis;
+		int courseCount = this.values.length;
+		resetSearchState();
+
+		// per depth: course assigned, next domain index to try, & trail size before assignment
+		int[] depthCourse = new int[courseCount];
+		int[] depthNextValue = new int[courseCount];
+		int[] depthTrail = new int[courseCount];
+		int depth = 0;
+		boolean newDepth = true;
+		if(!applyRequest(request) || !propagateBounds()) {
+			this.status = Status.INFEASIBLE;
+			depth = -1;
+		}
+
+		while(depth >= 0) {
+			if(depth == this.coursesToSchedule) {
+				this.status = Status.SOLVED;
+				break;
+			}
+			if(this.nodeCount >= this.maxNodes
+					|| ((this.nodeCount & 1023) == 0 && System.currentTimeMillis() > deadline)) {
+				this.status = Status.BUDGET_EXHAUSTED;
+				break;
+			}
+			if(newDepth) {
+				depthCourse[depth] = selectCourse();
+				depthNextValue[depth] = 0;
+				newDepth = false;
+			}
+
+			// find the next value of the course not removed
+			int course = depthCourse[depth];
+			int value = depthNextValue[depth];
+			while(value < this.values[course].length && this.removed[course][value]) {
+				value++;
+			}
+
+			// no values left: backtrack to the previous depth
+			if(value == this.values[course].length) {
+				this.backtrackCount++;
+				depth--;
+				if(depth < 0) {
+					this.status = Status.INFEASIBLE;
+					break;
+				}
+				unassign(depthCourse[depth], depthTrail[depth]);
+				continue;
+			}
+
+			// assign the value, forward check, & go deeper if no course is left without values
+			depthNextValue[depth] = value + 1;
+			depthTrail[depth] = this.trailSize;
+			this.nodeCount++;
+			this.assignment[course] = value;
+			if(forwardCheck(course, value)) {
+				depth++;
+				newDepth = true;
+			}
+			else {
+				unassign(course, depthTrail[depth]);
+			}
+		}
+
+		this.elapsedMillis = System.currentTimeMillis() - start;
+		return this.status;
+	}
+
+	/**
+	 * Clears the assignment and removed values, and the stats of the last search.
+	 */
+	private void resetSearchState() {
+		int courseCount = this.values.length;
+		this.removed = new boolean[courseCount][];
+		this.remainingValues = new int[courseCount];
+		this.assignment = new int[courseCount];
+		for(int i = 0; i < courseCount; i++) {
+			this.removed[i] = new boolean[this.values[i].length];
+			this.remainingValues[i] = this.values[i].length;
+			this.assignment[i] = -1;
+		}
+		this.coursesToSchedule = courseCount;
+		this.trailSize = 0;
+		this.nodeCount = 0;
+		this.backtrackCount = 0;
+	}
+
+	/**
+	 * Marks the completed courses of a request, and removes values of fixed courses
+	 * other than their fixed value, and values in excluded semesters.
+	 * The removed values are never restored during the search.
+	 * @param request or null for no restrictions
+	 * @return false if a course has no values left.
+	 */
+	private boolean applyRequest(PlanRequest request) {
+		if(request == null) {
+			return true;
+		}
+		boolean feasible = true;
+		for(String name : request.getCompletedCourses()) {
+			int course = this.model.getCourseIndex(name);
+			if(this.assignment[course] == -1) {
+				this.assignment[course] = COMPLETED;
+				this.coursesToSchedule--;
+			}
+		}
+		for(Map.Entry<String, Integer> entry : request.getFixedCourses().entrySet()) {
+			int course = this.model.getCourseIndex(entry.getKey());
+			if(this.assignment[course] == COMPLETED) {
+				continue;
+			}
+			for(int j = 0; j < this.values[course].length; j++) {
+				if(this.values[course][j] != entry.getValue() && !this.removed[course][j]) {
+					feasible &= remove(course, j);
+				}
+			}
+		}
+		if(!request.getExcludedSemesters().isEmpty()) {
+			for(int i = 0; i < this.values.length; i++) {
+				if(this.assignment[i] == COMPLETED) {
+					continue;
+				}
+				for(int j = 0; j < this.values[i].length; j++) {
+					if(request.getExcludedSemesters().contains(this.valueSemesters[i][j]) && !this.removed[i][j]) {
+						feasible &= remove(i, j);
+					}
+				}
+			}
+		}
+		return feasible;
+	}
+
+	/**
+	 * Removes values that cannot satisfy a "<" or "<=" constraint
+	 * with any value left of the other course, until no more can be removed.
+	 * The removed values are never restored during the search.
+	 * @return false if a course has no values left.
+	 */
+	private boolean propagateBounds() {
+		int courseCount = this.values.length;
+		int[] queue = new int[courseCount];
+		boolean[] queued = new boolean[courseCount];
+		int head = 0;
+		int queueSize = courseCount;
+		for(int i = 0; i < courseCount; i++) {
+			queue[i] = i;
+			queued[i] = true;
+		}
+
+		while(queueSize > 0) {
+			int course = queue[head];
+			head = (head + 1) % courseCount;
+			queueSize--;
+			queued[course] = false;
+			if(this.assignment[course] == COMPLETED) {
+				continue;
+			}
+			int minimum = minimumSemester(course);
+			int maximum = maximumSemester(course);
+
+			int[] courseConstraints = this.constraints.getCourseConstraints(course);
+			for(int i = 0; i < courseConstraints.length; i++) {
+				int index = courseConstraints[i];
+				boolean courseIsFirst = this.constraints.course1(index) == course;
+				int other = courseIsFirst ? this.constraints.course2(index) : this.constraints.course1(index);
+				if(this.assignment[other] == COMPLETED) {
+					continue;
+				}
+				boolean changed = false;
+				for(int j = 0; j < this.values[other].length; j++) {
+					if(this.removed[other][j]) {
+						continue;
+					}
+					// a value is kept if the bound of the course on the other side satisfies the constraint
+					int otherSemester = this.valueSemesters[other][j];
+					boolean violated = courseIsFirst
+							? this.constraints.isViolated(index, minimum, otherSemester)
+							: this.constraints.isViolated(index, otherSemester, maximum);
+					if(violated) {
+						if(!remove(other, j)) {
+							return false;
+						}
+						changed = true;
+					}
+				}
+				if(changed && !queued[other]) {
+					queue[(head + queueSize) % courseCount] = other;
+					queueSize++;
+					queued[other] = true;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the lowest semester ID of the values left of a course.
+	 * @param course index
+	 * @return
+	 */
+	private int minimumSemester(int course) {
+		int minimum = Integer.MAX_VALUE;
+		for(int j = 0; j < this.values[course].length; j++) {
+			if(!this.removed[course][j]) {
+				minimum = Math.min(minimum, this.valueSemesters[course][j]);
+			}
+		}
+		return minimum;
+	}
+
+	/**
+	 * Returns the highest semester ID of the values left of a course.
+	 * @param course index
+	 * @return
+	 */
+	private int maximumSemester(int course) {
+		int maximum = Integer.MIN_VALUE;
+		for(int j = 0; j < this.values[course].length; j++) {
+			if(!this.removed[course][j]) {
+				maximum = Math.max(maximum, this.valueSemesters[course][j]);
+			}
+		}
+		return maximum;
+	}
+
+	/**
+	 * Minimum Remaining Values:
+	 * returns the unassigned course with the fewest values left,
+	 * ties broken by the course with most constraints.
+	 * @return course index
+	 */
+	private int selectCourse() {
+		int selected = -1;
+		for(int i = 0; i < this.assignment.length; i++) {
+			if(this.assignment[i] != -1) {
+				continue;
+			}
+			if(selected == -1 || this.remainingValues[i] < this.remainingValues[selected]
+					|| (this.remainingValues[i] == this.remainingValues[selected]
+						&& this.constraints.getCourseConstraints(i).length
+							> this.constraints.getCourseConstraints(selected).length)) {
+				selected = i;
+			}
+		}
+		return selected;
+	}
+
+	/**
+	 * Removes the values of unassigned courses that conflict with the assigned value of a course.
+	 * @param course index of the course just assigned
+	 * @param value domain index of its value
+	 * @return false if an unassigned course has no values left.
+	 */
+	private boolean forwardCheck(int course, int value) {
+		int semester = this.valueSemesters[course][value];
+
+		// "<" and "<=" constraints of the course
+		int[] courseConstraints = this.constraints.getCourseConstraints(course);
+		for(int i = 0; i < courseConstraints.length; i++) {
+			int index = courseConstraints[i];
+			boolean courseIsFirst = this.constraints.course1(index) == course;
+			int other = courseIsFirst ? this.constraints.course2(index) : this.constraints.course1(index);
+			if(this.assignment[other] != -1) {
+				continue;
+			}
+			for(int j = 0; j < this.values[other].length; j++) {
+				if(this.removed[other][j]) {
+					continue;
+				}
+				int otherSemester = this.valueSemesters[other][j];
+				boolean violated = courseIsFirst
+						? this.constraints.isViolated(index, semester, otherSemester)
+						: this.constraints.isViolated(index, otherSemester, semester);
+				if(violated && !remove(other, j)) {
+					return false;
+				}
+			}
+		}
+
+		// values of other courses on the same day of the same semester
+		int semesterDay = this.valueSemesterDays[course][value];
+		int[] dayCourses = this.semesterDayCourses[semesterDay];
+		int[] dayValues = this.semesterDayValues[semesterDay];
+		for(int i = 0; i < dayCourses.length; i++) {
+			int other = dayCourses[i];
+			if(other == course || this.assignment[other] != -1 || this.removed[other][dayValues[i]]) {
+				continue;
+			}
+			if(!remove(other, dayValues[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Removes a value of a course, recording it on the trail.
+	 * @param course index
+	 * @param value domain index
+	 * @return false if the course has no values left.
+	 */
+	private boolean remove(int course, int value) {
+		this.removed[course][value] = true;
+		this.remainingValues[course]--;
+		this.trailCourses[this.trailSize] = course;
+		this.trailValues[this.trailSize] = value;
+		this.trailSize++;
+		return this.remainingValues[course] > 0;
+	}
+
+	/**
+	 * Unassigns a course, restoring every value removed since the trail was at trailMark.
+	 * @param course index
+	 * @param trailMark
+	 */
+	private void unassign(int course, int trailMark) {
+		while(this.trailSize > trailMark) {
+			this.trailSize--;
+			int other = this.trailCourses[this.trailSize];
+			this.removed[other][this.trailValues[this.trailSize]] = false;
+			this.remainingValues[other]++;
+		}
+		this.assignment[course] = -1;
+	}
+
+	/**
+	 * Creates a schedule of the assigned values, with its violations calculated.
+	 * @return
+	 */
+	private Schedule createSchedule() {
+		Schedule schedule = new Schedule(this.model);
+		for(int i = 0; i < this.assignment.length; i++) {
+			schedule.setCourseValue(i, this.values[i][this.assignment[i]]);
+		}
+		schedule.calculateAllViolations();
+		return schedule;
+	}
+
+	/**
+	 * Returns the value of every course scheduled by the last search, if it was solved.
+	 * Completed courses are not included.
+	 * @return course name  |  value, empty if the last search was not solved
+	 */
+	public Map<String, Integer> getCourseValueMap() {
+		Map<String, Integer> courseValues = new HashMap<>();
+		if(this.status != Status.SOLVED) {
+			return courseValues;
+		}
+		CourseList courseList = this.model.getCourseList();
+		for(int i = 0; i < this.assignment.length; i++) {
+			if(this.assignment[i] >= 0) {
+				courseValues.put(courseList.get(i).getName(), this.values[i][this.assignment[i]]);
+			}
+		}
+		return courseValues;
+	}
+
+	public Status getStatus() {
+		return this.status;
+	}
+	public long getNodeCount() {
+		return this.nodeCount;
+	}
+	public long getBacktrackCount() {
+		return this.backtrackCount;
+	}
+	public long getElapsedMillis() {
+		return this.elapsedMillis;
+	}
+	public long getMaxNodes() {
+		return this.maxNodes;
+	}
+	/**
+	 * Sets the number of assignments tried before the search gives up.
+	 * @param maxNodes
+	 */
+	public void setMaxNodes(long maxNodes) {
+		this.maxNodes = maxNodes;
+	}
+	public long getMaxMillis() {
+		return this.maxMillis;
+	}
+	/**
+	 * Sets the time in milliseconds before the search gives up.
+	 * @param maxMillis
+	 */
+	public void setMaxMillis(long maxMillis) {
+		this.maxMillis = maxMillis;
+	}
+
+	/**
+	 * Returns a String statement describing the last results.
+	 * @return String
+	 */
+	public String getLastStats() {
+		String s = "";
+		switch(this.status) {
+		case SOLVED:
+			s = s.concat("A successful schedule has been found by Backtracking.\nIt took "
+					+ this.nodeCount + " assignments and " + this.backtrackCount + " backtracks, in "
+					+ this.elapsedMillis + " ms.");
+			break;
+		case INFEASIBLE:
+			s = s.concat("No schedule can satisfy the constraints.\nBacktracking proved this with "
+					+ this.nodeCount + " assignments and " + this.backtrackCount + " backtracks, in "
+					+ this.elapsedMillis + " ms.");
+			break;
+		case BUDGET_EXHAUSTED:
+			s = s.concat("No successful schedule was found by Backtracking within its budget.\nSearch took "
+					+ this.nodeCount + " assignments and " + this.backtrackCount + " backtracks, in "
+					+ this.elapsedMillis + " ms.");
+			break;
+		}
+		return s;
+	}
+}
@@ -0,0 +1,188 @@
+package csp;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Solves many students' PlanRequests against one shared ScheduleModel,
+ * on a pool of worker threads, each with its own BacktrackingSolver.
+ *
+ * Requests are read from an Iterator as workers free up, so a Stream of requests
+ * (Stream.iterator()) is never held in memory all at once.
+ * Each result is given to the result consumer as soon as it is solved,
+ * one at a time, so the consumer does not need to be thread safe.
+ */
+public class BatchScheduler {
+	private ScheduleModel model;
+
+	// Settable worker count & budget of each request
+	private int workerCount = Runtime.getRuntime().availableProcessors();
+	private long maxNodesPerPlan = 1_000_000;
+	private long maxMillisPerPlan = 1_000;
+
+	// stats of last batch
+	private AtomicInteger planCount = new AtomicInteger();
+	private AtomicInteger solvedCount = new AtomicInteger();
+	private AtomicInteger infeasibleCount = new AtomicInteger();
+	private AtomicInteger exhaustedCount = new AtomicInteger();
+	private long elapsedNanos;
+
+	/**
+	 * An instantiation will solve every batch against the same model.
+	 * @param model
+	 */
+	BatchScheduler(ScheduleModel model){
+		this.model = model;
+	}
+
+	/**
+	 * Solves every request, giving each result to results as it is solved.
+	 * Returns once every result has been given.
+	 * @param requests
+	 * @param results called once per request, never by two threads at once
+	 * @throws IllegalStateException if a request fails, such as naming a course not in the model
+	 */
+	public void solveAll(Iterator<PlanRequest> requests, Consumer<PlanResult> results) {
+		this.planCount.set(0);
+		this.solvedCount.set(0);
+		this.infeasibleCount.set(0);
+		this.exhaustedCount.set(0);
+		long start = System.nanoTime();
+
+		// one solver per worker, taken by a worker for each request
+		BlockingQueue<BacktrackingSolver> solvers = new ArrayBlockingQueue<>(this.workerCount);
+		for(int i = 0; i < this.workerCount; i++) {
+			BacktrackingSolver solver = new BacktrackingSolver(this.model);
+			solver.setMaxNodes(this.maxNodesPerPlan);
+			solver.setMaxMillis(this.maxMillisPerPlan);
+			solvers.add(solver);
+		}
+		// limits requests read ahead of the workers
+		Semaphore pending = new Semaphore(this.workerCount * 2);
+		AtomicReference<RuntimeException> failure = new AtomicReference<>();
+		Object resultLock = new Object();
+
+		ExecutorService pool = Executors.newFixedThreadPool(this.workerCount);
+		try {
+			while(requests.hasNext() && failure.get() == null) {
+				PlanRequest request = requests.next();
+				pending.acquire();
+				pool.execute(() -> {
+					try {
+						PlanResult result = solve(solvers, request);
+						synchronized(resultLock) {
+							results.accept(result);
+						}
+					} catch (RuntimeException e) {
+						failure.compareAndSet(null, e);
+					} finally {
+						pending.release();
+					}
+				});
+			}
+			pool.shutdown();
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			pool.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+		this.elapsedNanos = System.nanoTime() - start;
+
+		if(failure.get() != null) {
+			throw new IllegalStateException("Plan request failed", failure.get());
+		}
+	}
+
+	/**
+	 * Assistant method to solveAll().
+	 * Solves one request with a solver taken from solvers, and returns the solver when done.
+	 * @param solvers
+	 * @param request
+	 * @return
+	 */
+	private PlanResult solve(BlockingQueue<BacktrackingSolver> solvers, PlanRequest request) {
+		BacktrackingSolver solver = solvers.poll();
+		try {
+			BacktrackingSolver.Status status = solver.search(request);
+			this.planCount.incrementAndGet();
+			switch(status) {
+			case SOLVED:
+				this.solvedCount.incrementAndGet();
+				break;
+			case INFEASIBLE:
+				this.infeasibleCount.incrementAndGet();
+				break;
+			case BUDGET_EXHAUSTED:
+				this.exhaustedCount.incrementAndGet();
+				break;
+			}
+			return new PlanResult(request, status, solver.getCourseValueMap(),
+					solver.getNodeCount(), solver.getElapsedMillis());
+		} finally {
+			solvers.add(solver);
+		}
+	}
+
+	/**
+	 * Returns the requests solved per second by the last batch, of any status.
+	 * @return
+	 */
+	public double getPlansPerSecond() {
+		if(this.elapsedNanos == 0) {
+			return 0;
+		}
+		return this.planCount.get() / (this.elapsedNanos / 1e9);
+	}
+	public int getPlanCount() {
+		return this.planCount.get();
+	}
+	public int getSolvedCount() {
+		return this.solvedCount.get();
+	}
+	public int getInfeasibleCount() {
+		return this.infeasibleCount.get();
+	}
+	public int getExhaustedCount() {
+		return this.exhaustedCount.get();
+	}
+	public int getWorkerCount() {
+		return this.workerCount;
+	}
+	/**
+	 * Sets the number of requests solved at once, one per thread.
+	 * @param workerCount
+	 */
+	public void setWorkerCount(int workerCount) {
+		this.workerCount = workerCount;
+	}
+	public long getMaxNodesPerPlan() {
+		return this.maxNodesPerPlan;
+	}
+	public void setMaxNodesPerPlan(long maxNodesPerPlan) {
+		this.maxNodesPerPlan = maxNodesPerPlan;
+	}
+	public long getMaxMillisPerPlan() {
+		return this.maxMillisPerPlan;
+	}
+	public void setMaxMillisPerPlan(long maxMillisPerPlan) {
+		this.maxMillisPerPlan = maxMillisPerPlan;
+	}
+
+	/**
+	 * Returns a String statement describing the last batch.
+	 * @return String
+	 */
+	public String getLastStats() {
+		return String.format("%d plans in %.3f s: %.1f plans/s, with %d workers.\n"
+				+ "%d solved, %d infeasible, %d without a result within the budget.",
+				this.planCount.get(), this.elapsedNanos / 1e9, getPlansPerSecond(), this.workerCount,
+				this.solvedCount.get(), this.infeasibleCount.get(), this.exhaustedCount.get());
+	}
+}
@@ -1,8 +1,12 @@
 package csp;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
 	 * Constraint Satisfaction for Course Semester Problem.
@@ -12,44 +16,139 @@ import java.util.Queue;
 	 * 	dom		domain function:	Course.domain
 	 * 	A[V]	array of Values		Schedule
 	 * 
+	 * An instantiation runs one search at a time.
+	 * Instantiations sharing a ScheduleModel can search on different threads at once.
 	 */
 public class CSPAlgorithm {
 	// used in constructor
+	private ScheduleModel model;
 	private ConstraintList c;
-	private static CourseList courseList;
+	private CourseList courseList;
 	private SemesterList semesterList;
 	// general variables
-	private int iterationCount;
-	private int restartCount;
-	private int courseValueWalks;
-	private double totalPossibleSchedules;
+	private long iterationCount;
+	private long restartCount;
+	private long courseValueWalks;
+	private double log10PossibleSchedules;	// base 10, as the count passes the range of a double
 	private int minConflictsFound = Integer.MAX_VALUE;
-	private static Queue<String> tabuCourses = new LinkedList<>();
+	private int[] minConflictsValues;	// course index  |  value in the schedule of minConflictsFound
+	private TabuList tabu;
+	private ConstraintWeights weights;	// null unless constraint weighting is on
+	private MoveDeltaTable deltaTable;	// null unless best improvement is on
 	private boolean scheduleFound;
+	private SolverMetrics metrics = new SolverMetrics();
+	// random streams: seeds gives the seed of each search, random is the stream of the running search
+	private SplittableRandom seeds;
+	private long nextSearchSeed;
+	private long lastSearchSeed;
+	private SplittableRandom random;
+	// set by any search chain sharing it when a schedule is found, stopping the others
+	private AtomicBoolean cancelled = new AtomicBoolean(false);
+	// receives intermediate schedules, shared by the search chains of a parallel search
+	private TraceSink traceSink = new NullTraceSink();
 	
 	
 	// Settable maximum iterations & size variables
 	private int randomSamplingMax = 5000;
 	private int twoStageChoiceIterations = 1000   ;
 	private int highestViolationsWalkMaxIterations = 10000;
-	private int tabuCoursesSize = 4;
-	private int holeIterationsUntilRandomRestart = 40;	// same concurrent schedule conflicts 
+	private int tabuCoursesSize = 4;	// a walked course is tabu for the next tabuCoursesSize+1 walks
+	private int tabuMoveTenure = 0;		// walks a course cannot return to a value, 0 for off
+	private int holeIterationsUntilRandomRestart = 40;	// walks without fewer conflicts than the best of the restart
+	private boolean constraintWeighting = false;	// score moves by weighted conflicts, increasing weights at local minima
+	private boolean bestImprovement = false;	// make the best move of every course, rather than walk one course
+	private int workerCount = Runtime.getRuntime().availableProcessors(); // parallel search chains
 
 	
 	/**
 	 * An instantiation will use the same input lists when its search methods are used.
+	 * Creates a new model of the lists, use CSPAlgorithm(ScheduleModel) to share one.
 	 * @param c
 	 * @param courseListIn
 	 * @param sl
 	 */
 	CSPAlgorithm(ConstraintList c, CourseList courseListIn, 
 			SemesterList sl){
-		this.c = c;
-		CSPAlgorithm.courseList = courseListIn;
-		this.semesterList = sl;	
+		this(new ScheduleModel(c, courseListIn, sl));
+	}
+
+	/**
+	 * An instantiation will use the same model when its search methods are used.
+	 * @param model
+	 */
+	CSPAlgorithm(ScheduleModel model){
+		setModel(model);
+		setSeed(new SplittableRandom().nextLong());
+		this.tabu = createTabuList();
 		calculateTotalPossibleSchedules();
 	}
 
+	/**
+	 * Sets the model searched, and its input lists.
+	 * @param model
+	 */
+	private void setModel(ScheduleModel model) {
+		this.model = model;
+		this.c = model.getConstraintList();
+		this.courseList = model.getCourseList();
+		this.semesterList = model.getSemesterList();
+	}
+	
+	/**
+	 * Sets the seed of the next search.
+	 * Each search after it has its seed drawn from the one before,
+	 * so the same seed repeats the same sequence of searches.
+	 * @param seed
+	 */
+	public void setSeed(long seed) {
+		this.nextSearchSeed = seed;
+		this.seeds = new SplittableRandom(seed);
+		this.random = new SplittableRandom(seed);
+	}
+	
+	/**
+	 * Returns the random stream of a search starting, from its seed,
+	 * and draws the seed of the next search.
+	 * @return
+	 */
+	private SplittableRandom startSearch() {
+		this.lastSearchSeed = this.nextSearchSeed;
+		this.nextSearchSeed = this.seeds.nextLong();
+		return new SplittableRandom(this.lastSearchSeed);
+	}
+	
+	/**
+	 * Creates a search chain for parallel search, 
+	 * using the same input lists and settings as the parent.
+	 * @param parent
+	 * @param cancelled shared by all chains of one parallel search
+	 * @param random stream of the chain, split from the stream of the parallel search
+	 */
+	private CSPAlgorithm(CSPAlgorithm parent, AtomicBoolean cancelled, SplittableRandom random) {
+		setModel(parent.model);
+		this.random = random;
+		this.log10PossibleSchedules = parent.log10PossibleSchedules;
+		this.randomSamplingMax = parent.randomSamplingMax;
+		this.twoStageChoiceIterations = parent.twoStageChoiceIterations;
+		this.highestViolationsWalkMaxIterations = parent.highestViolationsWalkMaxIterations;
+		this.tabuCoursesSize = parent.tabuCoursesSize;
+		this.tabuMoveTenure = parent.tabuMoveTenure;
+		this.holeIterationsUntilRandomRestart = parent.holeIterationsUntilRandomRestart;
+		this.constraintWeighting = parent.constraintWeighting;
+		this.bestImprovement = parent.bestImprovement;
+		this.cancelled = cancelled;
+		this.traceSink = parent.traceSink;
+		this.tabu = createTabuList();
+	}
+	
+	/**
+	 * Creates an empty tabu list from the current tabu settings.
+	 * @return
+	 */
+	private TabuList createTabuList() {
+		return new TabuList(this.courseList, this.tabuCoursesSize + 1, this.tabuMoveTenure);
+	}
+
 	/**
 	 * Performs a local search in this way:
 	 * 	Random Initialization
@@ -58,112 +157,528 @@ public class CSPAlgorithm {
 	 * 				Random Restart
 	 * 
 	 * Uses assistant method walkThroughCourseValues()
-	 * @return
+	 * @return the schedule found, or the lowest conflict schedule of the search if none found.
 	 */
 	public Schedule twoStageChoiceRandomSelectionAndRandomRestart() {
-		int minConflictsFound = Integer.MAX_VALUE;
+		this.cancelled = new AtomicBoolean(false);
+		this.random = startSearch();
+		long start = System.nanoTime();
+		Schedule schedule = searchChain(start);
+		this.metrics.setElapsedNanos(System.nanoTime() - start);
+		return schedule;
+	}
+	
+	/**
+	 * The search loop of twoStageChoiceRandomSelectionAndRandomRestart().
+	 * Stops early once cancelled is set by this or any chain sharing it.
+	 * @param start System.nanoTime() at the start of the search, for time to first solution
+	 * @return the schedule found, or the lowest conflict schedule of the chain if none found
+	 */
+	private Schedule searchChain(long start) {
+		this.metrics = new SolverMetrics();
+		this.minConflictsFound = Integer.MAX_VALUE;
 		this.iterationCount = 0;		// tracks iterations of every step 
 		this.restartCount = -1;  	// tracks total random restarts of schedule values.
-		Schedule schedule = new Schedule(this.semesterList, this.c, CSPAlgorithm.courseList);
+		this.courseValueWalks = 0;
+		this.tabu.clear();
+		// weights are kept across restarts, as they learn which constraints are hard to satisfy
+		// the weights & delta table are sized by the model, so they are kept for the next search
+		if(!this.constraintWeighting) {
+			this.weights = null;
+		}
+		else if(this.weights == null) {
+			this.weights = new ConstraintWeights(this.model);
+		}
+		else {
+			this.weights.clear();
+		}
+		if(!this.bestImprovement) {
+			this.deltaTable = null;
+		}
+		else if(this.deltaTable == null) {
+			this.deltaTable = new MoveDeltaTable(this.model);
+		}
+		if(this.minConflictsValues == null) {
+			this.minConflictsValues = new int[this.courseList.size()];
+		}
+		Schedule schedule = new Schedule(this.model);
 		// random initialization of schedule
-		for(int i = 0; i < this.twoStageChoiceIterations; i++) {
+		for(int i = 0; i < this.twoStageChoiceIterations && !this.cancelled.get(); i++) {
 			this.iterationCount++;
 			this.restartCount++;
 			
 			// create a random schedule & calculate violations
-			schedule.createRandomSchedule();
+			long restartStart = System.nanoTime();
+			SearchEvents.Restart restartEvent = null;
+			if(SearchEvents.isRestartEnabled()) {
+				restartEvent = new SearchEvents.Restart();
+				restartEvent.begin();
+			}
+			schedule.createRandomSchedule(this.random);
 			schedule.calculateAllViolations();
+			this.tabu.clear();
+			if(this.deltaTable != null) {
+				this.deltaTable.reset(schedule, this.weights, this.random);
+			}
 			
 			// track all intermediate schedules
-			Util.intermediateTracker(schedule.toString()+"\n");
+			this.traceSink.record(schedule);
 			
 			// set variables
 			int conflictTotal = schedule.getTotalConflicts();
-			int previousConflictTotal = 0;
+			this.metrics.addRestart(conflictTotal, System.nanoTime() - restartStart);
+			long walksBeforeRestart = this.metrics.getWalks();
+			if(restartEvent != null) {
+				restartEvent.restart = this.restartCount;
+				restartEvent.startConflicts = conflictTotal;
+			}
+			int restartMinConflicts = conflictTotal;
 			int sameResultCount = 0;
 			
 			// Track minimum conflicts found
-			if(conflictTotal < minConflictsFound) {
-				minConflictsFound = conflictTotal;
+			if(conflictTotal < this.minConflictsFound) {
+				this.minConflictsFound = conflictTotal;
+				schedule.copyCourseValues(this.minConflictsValues);
 			}
 			
 			// stop and return schedule if no conflicts
 			if(conflictTotal == 0) {
-				this.scheduleFound = true;
+				endRestart(restartEvent, schedule, walksBeforeRestart);
+				solutionFound(start);
 				return schedule;
 			}
 			
 			// two-stage choice & random walks
 			// loop will terminate if X concurrent schedules have same conflict number
 			for(int j = 0; j < this.highestViolationsWalkMaxIterations 
-					&& sameResultCount < this.holeIterationsUntilRandomRestart ; j++) {
+					&& sameResultCount < this.holeIterationsUntilRandomRestart 
+					&& !this.cancelled.get(); j++) {
 				this.iterationCount++;
-				String courseToWalk = schedule.getCourseWithMostConflicts();
-				
-				// check tabu list of previously walked courses, use random course if so.
-				if(tabuCourses.contains(courseToWalk)){
-					courseToWalk = CSPAlgorithm.courseList.getRandomCourseName();
+				long walksBefore = this.courseValueWalks;
+				long walkStart;
+				if(this.deltaTable != null) {
+					// best improvement: choosing the move is evaluating the values it changed
+					walkStart = System.nanoTime();
+					applyBestMove(schedule);
 				}
-				tabuCoursesAdd(courseToWalk);
+				else {
+					long selectionStart = System.nanoTime();
+					int courseToWalk = schedule.getCourseIndexWithMostConflicts(this.random);
+					
+					// check tabu list of previously walked courses, use random course if so,
+					// unless walking the course would beat the fewest conflicts found.
+					if(this.tabu.isCourseTabu(courseToWalk)) {
+						if(!isAspiration(schedule, courseToWalk)) {
+							courseToWalk = this.random.nextInt(this.courseList.size());
+						}
+						else {
+							tabuOverride(courseToWalk, 0);
+						}
+					}
+					this.tabu.addCourse(courseToWalk);
+					walkStart = System.nanoTime();
+					this.metrics.addSelection(walkStart - selectionStart);
 
-				// create a new schedule: the lowest conflict schedule for the chosen course
-				schedule = walkThroughCourseValues(schedule, courseToWalk);
+					// move the chosen course to its lowest conflict value, in place
+					walkThroughCourseValues(schedule, courseToWalk);
+				}
+				this.tabu.nextIteration();
+				this.metrics.addWalk(this.courseValueWalks - walksBefore, System.nanoTime() - walkStart);
 				int totalConflicts = schedule.getTotalConflicts();
 				
 				// track intermediate schedules
-				Util.intermediateTracker(schedule.toString()+"\n");
+				this.traceSink.record(schedule);
 				
-				// track number of concurrent schedules with same conflict number 
-				// for random restart
-				previousConflictTotal = totalConflicts;
+				if(totalConflicts < this.minConflictsFound) {
+					this.minConflictsFound = totalConflicts;
+					schedule.copyCourseValues(this.minConflictsValues);
+				}
 				if(totalConflicts == 0) {
-					this.scheduleFound = true;
+					endRestart(restartEvent, schedule, walksBeforeRestart);
+					solutionFound(start);
 					return schedule;
 				}
-				if(totalConflicts == previousConflictTotal) {
-					sameResultCount++;
-				}
-				if(totalConflicts != previousConflictTotal){
+				// track number of walks since the fewest conflicts of this restart improved,
+				// for random restart
+				if(totalConflicts < restartMinConflicts) {
+					restartMinConflicts = totalConflicts;
 					sameResultCount = 0;
 				}
+				else {
+					sameResultCount++;
+				}
 			}
+			endRestart(restartEvent, schedule, walksBeforeRestart);
 		}		
 		this.scheduleFound = false;
+		// return the lowest conflict schedule of the chain, rather than the end of its last restart
+		if(this.minConflictsFound < schedule.getTotalConflicts()) {
+			schedule.setCourseValues(this.minConflictsValues);
+		}
 		return schedule;
 	}
 	
+	/**
+	 * Assistant method to searchChain().
+	 * Marks a schedule with no conflicts found, stopping every chain sharing this one's cancel flag.
+	 * @param start System.nanoTime() at the start of the search
+	 */
+	private void solutionFound(long start) {
+		long timeToSolution = System.nanoTime() - start;
+		this.metrics.solutionFound(timeToSolution);
+		this.scheduleFound = true;
+		this.cancelled.set(true);
+		if(SearchEvents.isSolutionFoundEnabled()) {
+			SearchEvents.SolutionFound event = new SearchEvents.SolutionFound();
+			event.restarts = this.restartCount;
+			event.iterations = this.iterationCount;
+			event.valueChecks = this.courseValueWalks;
+			event.timeToSolution = timeToSolution;
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Assistant method to searchChain().
+	 * Commits the event of a restart, if one was started.
+	 * @param event null if restart events were not enabled when the restart began
+	 * @param schedule the schedule when the restart ended
+	 * @param walksBeforeRestart walks counted by metrics before the restart
+	 */
+	private void endRestart(SearchEvents.Restart event, Schedule schedule, long walksBeforeRestart) {
+		if(event == null) {
+			return;
+		}
+		event.endConflicts = schedule.getTotalConflicts();
+		event.walks = this.metrics.getWalks() - walksBeforeRestart;
+		event.commit();
+	}
+	
+	/**
+	 * Commits a tabu override event, if enabled.
+	 * @param course index of the tabu course, or course of the tabu value
+	 * @param value tabu value allowed, 0 for a tabu course
+	 */
+	private void tabuOverride(int course, int value) {
+		if(SearchEvents.isTabuOverrideEnabled()) {
+			SearchEvents.TabuOverride event = new SearchEvents.TabuOverride();
+			event.course = this.courseList.get(course).getName();
+			event.value = value;
+			event.minConflictsFound = this.minConflictsFound;
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Runs twoStageChoiceRandomSelectionAndRandomRestart() as independent search chains
+	 * on a pool of workerCount threads, splitting the random restarts between them.
+	 * There is no more than one chain per restart, so the search makes exactly the set number of restarts
+	 * unless a schedule is found first.
+	 * The first chain to find a schedule with no conflicts stops all other chains.
+	 * 
+	 * Stats of all chains are added together for getLastStatsMostImproving().
+	 * If the calling thread is interrupted while waiting, every chain is stopped
+	 * and null is returned with no schedule found; the thread's interrupt status is set again,
+	 * and stats only count the chains that were merged before the interrupt.
+	 * @return the schedule found, or the lowest conflict schedule of all chains if none found,
+	 * 		null if interrupted.
+	 */
+	public Schedule parallelTwoStageChoiceRandomSelectionAndRandomRestart() {
+		AtomicBoolean chainsCancelled = new AtomicBoolean(false);
+		SplittableRandom searchRandom = startSearch();
+		long start = System.nanoTime();
+		// the first chains take one more restart each when they do not split evenly
+		int chainCount = Math.max(1, Math.min(this.workerCount, this.twoStageChoiceIterations));
+		int restartsPerChain = this.twoStageChoiceIterations / chainCount;
+		int extraRestarts = this.twoStageChoiceIterations % chainCount;
+		List<CSPAlgorithm> chains = new ArrayList<>();
+		List<Future<Schedule>> results = new ArrayList<>();
+		
+		// start each chain
+		ExecutorService pool = Executors.newFixedThreadPool(chainCount);
+		for(int i = 0; i < chainCount; i++) {
+			CSPAlgorithm chain = new CSPAlgorithm(this, chainsCancelled, searchRandom.split());
+			chain.twoStageChoiceIterations = restartsPerChain + (i < extraRestarts ? 1 : 0);
+			chains.add(chain);
+			results.add(pool.submit(() -> chain.searchChain(start)));
+		}
+		pool.shutdown();
+		
+		// wait for every chain, keeping the found or lowest conflict schedule
+		Schedule bestSchedule = null;
+		this.scheduleFound = false;
+		this.iterationCount = 0;
+		this.restartCount = -1;
+		this.courseValueWalks = 0;
+		this.minConflictsFound = Integer.MAX_VALUE;
+		this.metrics = new SolverMetrics();
+		try {
+			for(int i = 0; i < chains.size(); i++) {
+				Schedule chainSchedule = results.get(i).get();
+				CSPAlgorithm chain = chains.get(i);
+				this.iterationCount += chain.iterationCount;
+				this.restartCount += chain.restartCount + 1;
+				this.courseValueWalks += chain.courseValueWalks;
+				this.metrics.add(chain.metrics);
+				if(chain.minConflictsFound < this.minConflictsFound) {
+					this.minConflictsFound = chain.minConflictsFound;
+				}
+				if(this.scheduleFound || chainSchedule == null) {
+					continue;
+				}
+				if(chain.scheduleFound) {
+					this.scheduleFound = true;
+					bestSchedule = chainSchedule;
+				}
+				else if(bestSchedule == null 
+						|| chainSchedule.getTotalConflicts() < bestSchedule.getTotalConflicts()) {
+					bestSchedule = chainSchedule;
+				}
+			}
+		} catch (InterruptedException e) {
+			chainsCancelled.set(true);
+			pool.shutdownNow();
+			Thread.currentThread().interrupt();
+			this.scheduleFound = false;
+			this.metrics.setElapsedNanos(System.nanoTime() - start);
+			return null;
+		} catch (ExecutionException e) {
+			chainsCancelled.set(true);
+			pool.shutdownNow();
+			throw new IllegalStateException("Search chain failed", e.getCause());
+		}
+		this.metrics.setElapsedNanos(System.nanoTime() - start);
+		return bestSchedule;
+	}
+	
 	/**
 	 * Assistant Method to Most Improving search.
 	 * Walks through the values of a single course, 
-	 * and returns the schedule with the least constraint violations.
-	 * @param schedule
-	 * @return
+	 * and moves it to the value with the least constraint violations.
+	 * Values are scored by the change in conflicts of moving the course,
+	 * or in weighted conflicts with constraint weighting on,
+	 * without changing the schedule; only the winning value is applied, in place,
+	 * so a walk allocates nothing.
+	 * With constraint weighting, a walk that finds no value lowering the weighted conflicts
+	 * is stuck at a local minimum, and increases the weights of the conflicts of the course.
+	 * Package access for SolverBenchmark.
+	 * @param schedule changed in place
+	 * @param courseInToWalk
+	 */
+	void walkThroughCourseValues(Schedule schedule, String courseInToWalk) {
+		walkThroughCourseValues(schedule, this.courseList.getCourseIndex(courseInToWalk));
+	}
+	
+	/**
+	 * Walks through the values of a course by index.
+	 * @param schedule changed in place
+	 * @param course index
 	 */
-	private Schedule walkThroughCourseValues(Schedule schedule, String courseInToWalk) {
+	private void walkThroughCourseValues(Schedule schedule, int course) {
+		SearchEvents.Walk walkEvent = null;
+		if(SearchEvents.isWalkEnabled()) {
+			walkEvent = new SearchEvents.Walk();
+			walkEvent.begin();
+		}
 
 		// set variables
-		List<Schedule> scheduleList = new ArrayList<>();
-		int bestScheduleIndex = 0;
-		int minimumConflicts = Integer.MAX_VALUE;
-		int iterationConflicts;
+		int[] values = this.model.getValues(course);
+		int currentValue = schedule.getCourseValue(course);
+		int currentValueIndex = -1;
+		int bestValue = currentValue;
+		int minimumDelta = Integer.MAX_VALUE;
+		int iterationDelta;
+		int bestCount = 0;
+		boolean bestTabu = false;	// the best value is tabu, allowed by aspiration
 		
-		Course courseToWalk = CSPAlgorithm.courseList.getCourseByName(courseInToWalk);
-		for(int j = 0; j < courseToWalk.getDomainSize(); j++) {
+		for(int j = 0; j < values.length; j++) {
 			this.courseValueWalks++;
-			Schedule loopSchedule = new Schedule(schedule.getCourseValueMap());
-			scheduleList.add(j, loopSchedule);
-			Integer newCourseValue = courseToWalk.getDomainEntry(j);
-
-			loopSchedule.setCourseValue(courseInToWalk, newCourseValue);
-			loopSchedule.calculateAllViolations();
-			iterationConflicts = loopSchedule.getTotalConflicts();
+			int newCourseValue = values[j];
+			if(newCourseValue == currentValue) {
+				currentValueIndex = j;
+			}
+			iterationDelta = this.weights == null
+					? schedule.calculateConflictDelta(course, newCourseValue)
+					: schedule.calculateWeightedConflictDelta(course, newCourseValue, this.weights);
+			
+			// skip tabu values, unless they beat the fewest conflicts found
+			boolean tabuValue = newCourseValue != currentValue && this.tabu.isMoveTabu(course, j);
+			if(tabuValue) {
+				int conflictDelta = this.weights == null
+						? iterationDelta : schedule.calculateConflictDelta(course, newCourseValue);
+				if(schedule.getTotalConflicts() + conflictDelta >= this.minConflictsFound) {
+					continue;
+				}
+			}
 
-			if(iterationConflicts < minimumConflicts) {
-				bestScheduleIndex = j;
-				minimumConflicts = iterationConflicts;
+			// ties are broken at random, so courses do not crowd into their first values
+			if(iterationDelta < minimumDelta) {
+				bestValue = newCourseValue;
+				bestTabu = tabuValue;
+				minimumDelta = iterationDelta;
+				bestCount = 1;
+			}
+			else if(iterationDelta == minimumDelta && this.random.nextInt(++bestCount) == 0) {
+				bestValue = newCourseValue;
+				bestTabu = tabuValue;
 			}
 		}
-		return scheduleList.get(bestScheduleIndex);
+		// an override is only reported for the tabu value actually moved to
+		if(bestTabu) {
+			tabuOverride(course, bestValue);
+		}
+		
+		// the course may not return to the value it left for the move tenure
+		if(bestValue != currentValue && currentValueIndex >= 0) {
+			this.tabu.addMove(course, currentValueIndex);
+		}
+		schedule.applyCourseMove(course, bestValue);
+		if(this.weights != null && minimumDelta >= 0) {
+			schedule.increaseCourseWeights(course, this.weights);
+			this.metrics.addBreakout();
+		}
+		if(walkEvent != null) {
+			walkEvent.course = this.courseList.get(course).getName();
+			walkEvent.domainSize = values.length;
+			walkEvent.bestDelta = minimumDelta;
+			walkEvent.conflicts = schedule.getTotalConflicts();
+			walkEvent.commit();
+		}
+	}
+	
+	/**
+	 * Assistant method to searchChain() with best improvement.
+	 * Makes the move with the lowest change in conflicts of any course in the schedule,
+	 * or weighted conflicts with constraint weighting on, from the cached delta table.
+	 * The move is made even if it adds conflicts, so the search leaves a local minimum;
+	 * the tabu list keeps it from moving the course straight back.
+	 * With constraint weighting, a move that does not lower the weighted conflicts means
+	 * the schedule is at a local minimum, and the weights of the conflicts of the course
+	 * with most conflicts are increased.
+	 * @param schedule changed in place
+	 */
+	private void applyBestMove(Schedule schedule) {
+		SearchEvents.Walk walkEvent = null;
+		if(SearchEvents.isWalkEnabled()) {
+			walkEvent = new SearchEvents.Walk();
+			walkEvent.begin();
+		}
+		long evaluationsBefore = this.deltaTable.getEvaluations();
+		int course = this.deltaTable.bestCourse(this.tabu, this.minConflictsFound);
+		if(course != -1) {
+			int valueIndex = this.deltaTable.getBestValueIndex(course);
+			int delta = this.deltaTable.getDelta(course, valueIndex);
+			int oldValue = schedule.getCourseValue(course);
+			int newValue = this.model.getValues(course)[valueIndex];
+			// a tabu course or value is only chosen by aspiration
+			if(this.tabu.isMoveTabu(course, valueIndex)) {
+				tabuOverride(course, newValue);
+			}
+			else if(this.tabu.isCourseTabu(course)) {
+				tabuOverride(course, 0);
+			}
+			this.tabu.addCourse(course);
+			if(this.tabuMoveTenure > 0) {
+				int[] values = this.model.getValues(course);
+				for(int j = 0; j < values.length; j++) {
+					if(values[j] == oldValue) {
+						this.tabu.addMove(course, j);
+					}
+				}
+			}
+			schedule.applyCourseMove(course, newValue);
+			this.deltaTable.courseMoved(course, oldValue, newValue);
+			if(this.weights != null && delta >= 0 && schedule.getTotalConflicts() > 0) {
+				int stuck = schedule.getCourseIndexWithMostConflicts(this.random);
+				schedule.increaseCourseWeights(stuck, this.weights);
+				this.deltaTable.weightsIncreased(stuck);
+				this.metrics.addBreakout();
+			}
+			if(walkEvent != null) {
+				walkEvent.course = this.courseList.get(course).getName();
+				walkEvent.domainSize = this.model.getValues(course).length;
+				walkEvent.bestDelta = delta;
+				walkEvent.conflicts = schedule.getTotalConflicts();
+				walkEvent.commit();
+			}
+		}
+		this.courseValueWalks += this.deltaTable.getEvaluations() - evaluationsBefore;
+	}
+	
+	/**
+	 * Aspiration criterion for a tabu course:
+	 * returns true if walking the course would beat the fewest conflicts found.
+	 * A move removes at most two conflicts for each conflict of the course,
+	 * so only courses that could beat it have their values checked.
+	 * @param schedule
+	 * @param course index
+	 * @return
+	 */
+	private boolean isAspiration(Schedule schedule, int course) {
+		int totalConflicts = schedule.getTotalConflicts();
+		if(totalConflicts - 2 * schedule.getCourseConflicts(course) >= this.minConflictsFound) {
+			return false;
+		}
+		return totalConflicts + bestConflictDelta(schedule, course) < this.minConflictsFound;
+	}
+	
+	/**
+	 * Returns the lowest change in conflicts of moving a course to any of its values.
+	 * @param schedule
+	 * @param course index
+	 * @return
+	 */
+	private int bestConflictDelta(Schedule schedule, int course) {
+		int minimumDelta = 0;
+		int[] values = this.model.getValues(course);
+		for(int j = 0; j < values.length; j++) {
+			int delta = schedule.calculateConflictDelta(course, values[j]);
+			if(delta < minimumDelta) {
+				minimumDelta = delta;
+			}
+		}
+		return minimumDelta;
+	}
+	
+	/**
+	 * Removes course values that cannot satisfy the constraints from each course's domain,
+	 * before searching. Changes the domains of the course list given to this instantiation,
+	 * so it must not run while other searches use the same course list.
+	 * @return false if the constraints cannot be satisfied, leaving domains unchanged.
+	 */
+	public boolean pruneDomains() {
+		DomainPruner pruner = new DomainPruner(this.c, this.courseList);
+		boolean consistent = pruner.prune();
+		setModel(new ScheduleModel(this.c, this.courseList, this.semesterList));
+		this.tabu = createTabuList();
+		this.weights = null;
+		this.deltaTable = null;
+		calculateTotalPossibleSchedules();
+		return consistent;
+	}
+	
+	/**
+	 * Runs a search strategy with this instantiation's input lists.
+	 * Iteration count, value checks, minimum conflicts found, & schedule found are taken from the strategy,
+	 * use the strategy's getLastStats() to describe the results.
+	 * The stats of any earlier search are replaced: a strategy makes no random restarts,
+	 * and getMetrics() only holds its elapsed time.
+	 * @param strategy
+	 * @return the schedule found, or the lowest conflict schedule found if none.
+	 */
+	public Schedule search(SearchStrategy strategy) {
+		SplittableRandom searchRandom = startSearch();
+		long start = System.nanoTime();
+		Schedule schedule = new Schedule(this.model);
+		Schedule result = strategy.search(schedule, this.courseList, searchRandom);
+		this.metrics = new SolverMetrics();
+		this.metrics.setElapsedNanos(System.nanoTime() - start);
+		this.iterationCount = strategy.getIterationCount();
+		this.restartCount = 0;
+		this.courseValueWalks = strategy.getEvaluationCount();
+		this.minConflictsFound = strategy.getMinConflictsFound();
+		this.scheduleFound = strategy.isScheduleFound();
+		return result;
 	}
 	
 	/**
@@ -176,13 +691,14 @@ public class CSPAlgorithm {
 	public Schedule randomSampling() {
 		this.minConflictsFound = Integer.MAX_VALUE;
 		this.iterationCount = 0;
-		Schedule schedule = new Schedule(this.semesterList, this.c, CSPAlgorithm.courseList);
+		this.random = startSearch();
+		Schedule schedule = new Schedule(this.model);
 		
 		// random schedule loop.
 		for(int i = 0; i < this.randomSamplingMax; i++) {
 			this.iterationCount++;
 			// random initialization of schedule
-			schedule.createRandomSchedule();
+			schedule.createRandomSchedule(this.random);
 			
 			// check if constraints are met
 			schedule.calculateAllViolations();
@@ -204,31 +720,31 @@ public class CSPAlgorithm {
 	}
 
 	/**
-	 * Used to create a max queue size for the tabu courses.
-	 * if size is less than static parameter,
-	 * adds, else removes the head of queue and recalls itself.
-	 * @param schedule
+	 * Calculates total of possible schedules by size of domain for each variable.
 	 */
-	private void tabuCoursesAdd(String courseName) {
-		if(tabuCourses.size() <= this.tabuCoursesSize) {
-			tabuCourses.add(courseName);
-		}
-		else {
-			tabuCourses.remove();
-			tabuCoursesAdd(courseName);
+	private void calculateTotalPossibleSchedules() {
+		this.log10PossibleSchedules = 0;
+		for(int i = 0; i < courseList.size(); i++) {
+			this.log10PossibleSchedules += Math.log10(courseList.get(i).getDomainSize());
 		}
 	}
+	
 	/**
-	 * Calculates total of possible schedules by size of domain for each variable.
+	 * Returns the total of possible schedules in scientific notation, such as 1.712e+36.
+	 * @return
 	 */
-	private void calculateTotalPossibleSchedules() {
-		this.totalPossibleSchedules = 1;
-		int multiplier = 0;
-		for(int i = 0; i < courseList.size(); i++) {
-			Course c = courseList.get(i);
-			multiplier = c.getDomainSize();
-			this.totalPossibleSchedules *= multiplier;
+	private String formatTotalPossibleSchedules() {
+		if(this.log10PossibleSchedules == Double.NEGATIVE_INFINITY) {
+			return String.format("%.03e", 0.0);
+		}
+		long exponent = (long) Math.floor(this.log10PossibleSchedules);
+		String mantissa = String.format("%.03f", Math.pow(10, this.log10PossibleSchedules - exponent));
+		if(mantissa.startsWith("10")) {
+			// rounded up to the next power of 10
+			exponent++;
+			mantissa = String.format("%.03f", 1.0);
 		}
+		return mantissa + (exponent < 0 ? "e-" : "e+") + (Math.abs(exponent) < 10 ? "0" : "") + Math.abs(exponent);
 	}
 
 	public void setIterationMax(int max) {
@@ -238,14 +754,14 @@ public class CSPAlgorithm {
 	 * Returns iteration count of last ran search.
 	 * @return
 	 */
-	public int getIterationCount() {
+	public long getIterationCount() {
 		return this.iterationCount;
 	}
 	/**
 	 * gets iteration count of last ran search.
 	 * @return
 	 */
-	public int getRestartCount() {
+	public long getRestartCount() {
 		return this.restartCount;
 	}
 	public int getMinConflictsFound() {
@@ -262,6 +778,48 @@ public class CSPAlgorithm {
 	}
 	public void setTabuCoursesSize(int tabuCoursesSize) {
 		this.tabuCoursesSize = tabuCoursesSize;
+		this.tabu = createTabuList();
+	}
+	public int getTabuMoveTenure() {
+		return this.tabuMoveTenure;
+	}
+	/**
+	 * Sets the number of walks a course may not return to a value it was walked away from.
+	 * 0 turns off value tabu, leaving only course tabu.
+	 * @param tabuMoveTenure
+	 */
+	public void setTabuMoveTenure(int tabuMoveTenure) {
+		this.tabuMoveTenure = tabuMoveTenure;
+		this.tabu = createTabuList();
+	}
+	public boolean isConstraintWeighting() {
+		return this.constraintWeighting;
+	}
+	/**
+	 * Turns the breakout method on or off for two-stage choice searches:
+	 * moves are scored by conflicts weighted by their constraints,
+	 * and the weights of the conflicts of a walked course are increased when the walk finds no improving value,
+	 * so the search can leave a local minimum without a random restart.
+	 * A schedule is still only a solution with no conflicts.
+	 * @param constraintWeighting
+	 */
+	public void setConstraintWeighting(boolean constraintWeighting) {
+		this.constraintWeighting = constraintWeighting;
+	}
+	public boolean isBestImprovement() {
+		return this.bestImprovement;
+	}
+	/**
+	 * Turns best improvement on or off for two-stage choice searches:
+	 * rather than walking the values of the course with most conflicts,
+	 * each step makes the best move of any course, from a table of the change in conflicts
+	 * of every course value, kept up to date by recalculating only the values each move changes.
+	 * The table holds an int per course value.
+	 * Its evaluations, and their time, are counted as walks by the metrics, with no selection time.
+	 * @param bestImprovement
+	 */
+	public void setBestImprovement(boolean bestImprovement) {
+		this.bestImprovement = bestImprovement;
 	}
 	public int getHoleIterationsUntilRandomRestart() {
 		return this.holeIterationsUntilRandomRestart;
@@ -271,9 +829,55 @@ public class CSPAlgorithm {
 		this.holeIterationsUntilRandomRestart = holeIterationsUntilRandomRestart;
 	}
 	
-	public int getCourseValueWalks() {
+	public int getWorkerCount() {
+		return this.workerCount;
+	}
+	/**
+	 * Sets the number of threads, and search chains, used by parallel search.
+	 * A search uses fewer if it has fewer restarts.
+	 * @param workerCount at least 1
+	 */
+	public void setWorkerCount(int workerCount) {
+		if(workerCount < 1) {
+			throw new IllegalArgumentException("Worker count must be at least 1: " + workerCount);
+		}
+		this.workerCount = workerCount;
+	}
+	
+	/**
+	 * Returns the seed of the last search, setSeed() with it repeats that search.
+	 * A parallel search repeats each chain, but which chain finishes first depends on the threads.
+	 * @return
+	 */
+	public long getLastSearchSeed() {
+		return this.lastSearchSeed;
+	}
+	public ScheduleModel getModel() {
+		return this.model;
+	}
+	public TraceSink getTraceSink() {
+		return this.traceSink;
+	}
+	/**
+	 * Sets where intermediate schedules of this instantiation's searches are recorded.
+	 * Tracing is off until a sink is set.
+	 * @param traceSink
+	 */
+	public void setTraceSink(TraceSink traceSink) {
+		this.traceSink = traceSink;
+	}
+	
+	public long getCourseValueWalks() {
 		return this.courseValueWalks;
 	}
+	/**
+	 * Returns a copy of the metrics of the last two-stage choice search,
+	 * added together over every chain of a parallel search.
+	 * @return
+	 */
+	public SolverMetrics getMetrics() {
+		return this.metrics.snapshot();
+	}
 
 	/**
 	 * Returns a String statement describing the last results.
@@ -281,7 +885,7 @@ public class CSPAlgorithm {
 	 */
 	public String getLastStatsMostImproving() {
 		String s = "";
-		String formattedTotalCount = String.format("%.03e", this.totalPossibleSchedules);
+		String formattedTotalCount = formatTotalPossibleSchedules();
 		if(this.scheduleFound) {
 			s = s.concat(
 					"A successful schedule has been found.\nIt took "+
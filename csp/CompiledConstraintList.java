@@ -0,0 +1,183 @@
+package csp;
+
+/**
+ * A ConstraintList compiled against a CourseList.
+ * Each constraint is stored as int arrays of the index of its two courses
+ * and an operator code, so evaluating a constraint needs no string lookups.
+ * Also lists the constraints of each course, to only re-check
+ * the constraints of a course that changed value.
+ *
+ * An instantiation is not changed after it is compiled.
+ */
+public class CompiledConstraintList {
+	// operator codes
+	public static final int OP_LESS = 0;
+	public static final int OP_LESS_OR_EQUAL = 1;
+	public static final int OP_UNKNOWN = 2;
+
+	// constraint index  |  course index of first course, last course, & operator code
+	private final int[] course1;
+	private final int[] course2;
+	private final int[] op;
+	// course index  |  indexes of every constraint the course is part of
+	private final int[][] courseConstraints;
+
+	/**
+	 * Compiles every constraint of the constraint list,
+	 * using the index of each course in the course list.
+	 * @param constraintList
+	 * @param courseList
+	 * @throws IllegalArgumentException if a constraint names a course not in the course list
+	 */
+	CompiledConstraintList(ConstraintList constraintList, CourseList courseList){
+		int size = constraintList.size();
+		this.course1 = new int[size];
+		this.course2 = new int[size];
+		this.op = new int[size];
+		for(int i = 0; i < size; i++) {
+			this.course1[i] = courseIndex(courseList, constraintList, constraintList.courseName1(i), i);
+			this.course2[i] = courseIndex(courseList, constraintList, constraintList.courseName2(i), i);
+			this.op[i] = compileOp(constraintList.op(i));
+		}
+		this.courseConstraints = createCourseConstraints(this.course1, this.course2, courseList.size());
+	}
+
+	/**
+	 * Creates a list of already compiled constraints, such as ones read from a model file.
+	 * The arrays are kept, and must not be changed.
+	 * @param course1 course index of the first course of each constraint
+	 * @param course2 course index of the last course of each constraint
+	 * @param op operator code of each constraint
+	 * @param courseCount number of courses the indexes are of
+	 */
+	CompiledConstraintList(int[] course1, int[] course2, int[] op, int courseCount){
+		this.course1 = course1;
+		this.course2 = course2;
+		this.op = op;
+		this.courseConstraints = createCourseConstraints(course1, course2, courseCount);
+	}
+
+	/**
+	 * Assistant method to constructor.
+	 * Returns the index of a course named in a constraint.
+	 * @param courseList
+	 * @param constraintList
+	 * @param name
+	 * @param constraint index of the constraint
+	 * @return
+	 * @throws IllegalArgumentException if the course list has no course of that name
+	 */
+	private static int courseIndex(CourseList courseList, ConstraintList constraintList, String name, int constraint) {
+		int index = courseList.findCourseIndex(name);
+		if(index == -1) {
+			if(constraintList.getFileName() != null) {
+				throw new IllegalArgumentException(constraintList.getFileName() + " line "
+						+ constraintList.lineNumber(constraint) + ": unknown course " + name);
+			}
+			throw new IllegalArgumentException("Constraint " + (constraint + 1) + " names unknown course: " + name);
+		}
+		return index;
+	}
+
+	/**
+	 * Assistant method to constructor.
+	 * Lists the constraints of each course, in constraint order.
+	 * @param course1
+	 * @param course2
+	 * @param courseCount
+	 * @return course index  |  indexes of every constraint the course is part of
+	 */
+	private static int[][] createCourseConstraints(int[] course1, int[] course2, int courseCount) {
+		int[] sizes = new int[courseCount];
+		for(int i = 0; i < course1.length; i++) {
+			sizes[course1[i]]++;
+			sizes[course2[i]]++;
+		}
+		int[][] courseConstraints = new int[courseCount][];
+		for(int i = 0; i < courseCount; i++) {
+			courseConstraints[i] = new int[sizes[i]];
+			sizes[i] = 0;
+		}
+		for(int i = 0; i < course1.length; i++) {
+			courseConstraints[course1[i]][sizes[course1[i]]++] = i;
+			courseConstraints[course2[i]][sizes[course2[i]]++] = i;
+		}
+		return courseConstraints;
+	}
+
+	/**
+	 * Converts an operator string from the constraint file to its operator code.
+	 * Unknown operators are never violated.
+	 * @param opString
+	 * @return
+	 */
+	static int compileOp(String opString) {
+		if(opString.equals("<")) {
+			return OP_LESS;
+		}
+		if(opString.equals("<=")) {
+			return OP_LESS_OR_EQUAL;
+		}
+		return OP_UNKNOWN;
+	}
+
+	/**
+	 * Returns true if the semesters of the two courses of constraint at index
+	 * violate its operator.
+	 * @param index of the constraint
+	 * @param course1Semester semester ID of the first course
+	 * @param course2Semester semester ID of the last course
+	 * @return
+	 */
+	public boolean isViolated(int index, int course1Semester, int course2Semester) {
+		switch(this.op[index]) {
+		case OP_LESS:
+			return course1Semester >= course2Semester;
+		case OP_LESS_OR_EQUAL:
+			return course1Semester > course2Semester;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Returns number of constraints
+	 * @return
+	 */
+	public int size() {
+		return this.op.length;
+	}
+	/**
+	 * Returns the course index of the first course of the constraint at index.
+	 * @param index
+	 * @return
+	 */
+	public int course1(int index) {
+		return this.course1[index];
+	}
+	/**
+	 * Returns the course index of the last course of the constraint at index.
+	 * @param index
+	 * @return
+	 */
+	public int course2(int index) {
+		return this.course2[index];
+	}
+	/**
+	 * Returns the operator code of the constraint at index.
+	 * @param index
+	 * @return
+	 */
+	public int op(int index) {
+		return this.op[index];
+	}
+	/**
+	 * Returns the indexes of every constraint the course at index is part of.
+	 * The returned array must not be changed.
+	 * @param course index
+	 * @return
+	 */
+	public int[] getCourseConstraints(int course) {
+		return this.courseConstraints[course];
+	}
+}
@@ -1,9 +1,14 @@
 package csp;
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
 
 /**
  * Contains specialized constraint functionality.
@@ -11,33 +16,93 @@ import java.util.Scanner;
  *
  */
 public class ConstraintList {
-	private String valueSeparator = "\\s+";
-	private String stringOfConstraints = "";
 	private List<String[]> constraintsString;
+	// constraint index  |  line of the constraint in its input file, 0 if not from a file
+	private int[] lineNumbers = new int[0];
+	private String fileName;	// null if not imported from a file
+	private CompiledConstraintList compiled;
+	private CourseList compiledCourseList;
 	
-/**
- * Imports constraints from a File.
- * @param f
- */
+	/**
+	 * Imports constraints from a File, read one line at a time.
+	 * Each line is a constraint: course name, operator, course name, such as ICS140 < ICS141, with an operator of < or <=.
+	 * Blank lines are skipped.
+	 * @param f
+	 * @throws IllegalArgumentException naming the line of a constraint that cannot be imported, or where the file cannot be read
+	 */
 	public void importConstraintsToString(File f) {
-			Scanner scanner;
-			String line = "";
-			String[] rowTokens;
-			this.constraintsString = new ArrayList<String[]>();
-			try {
-				scanner = new Scanner(f);
-				while(scanner.hasNextLine()){
-					line = scanner.nextLine();
-					rowTokens = line.split(this.valueSeparator);
-					this.constraintsString.add(rowTokens);
-					this.stringOfConstraints = this.stringOfConstraints.concat(line + "\n");
+		this.constraintsString = new ArrayList<String[]>();
+		this.compiled = null;
+		this.fileName = f.getName();
+		int[] lines = new int[16];
+		// each course is in many constraints, so the lines share one String per name
+		Map<String, String> names = new HashMap<>();
+		int lineNumber = 0;
+		try(BufferedReader reader = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				lineNumber++;
+				String[] rowTokens = Util.splitValues(line);
+				if(rowTokens.length == 0) {
+					continue;
+				}
+				if(rowTokens.length != 3) {
+					throw Util.inputError(f, lineNumber, "expected course, operator, & course, found "
+							+ rowTokens.length + " values");
+				}
+				if(CompiledConstraintList.compileOp(rowTokens[1]) == CompiledConstraintList.OP_UNKNOWN) {
+					throw Util.inputError(f, lineNumber, "unknown operator " + rowTokens[1]
+							+ " of constraint " + rowTokens[0] + " " + rowTokens[1] + " " + rowTokens[2] + ", expected < or <=");
+				}
+				if(lines.length == this.constraintsString.size()) {
+					lines = Arrays.copyOf(lines, lines.length * 2);
 				}
-				scanner.close();
-			} catch (FileNotFoundException e) {
+				for(int i = 0; i < rowTokens.length; i++) {
+					String name = names.putIfAbsent(rowTokens[i], rowTokens[i]);
+					if(name != null) {
+						rowTokens[i] = name;
+					}
+				}
+				lines[this.constraintsString.size()] = lineNumber;
+				this.constraintsString.add(rowTokens);
 			}
-			line.trim();
-			this.stringOfConstraints = line;
-
+		} catch (IOException e) {
+			throw Util.readError(f, lineNumber, e);
+		}
+		this.lineNumbers = Arrays.copyOf(lines, this.constraintsString.size());
+	}
+	/**
+	 * Replaces previous list with already compiled constraints, such as ones read from a model file.
+	 * The constraint lines are recreated from the course names & operators.
+	 * @param compiledIn compiled against courseList
+	 * @param courseList
+	 * @param ops operator string of each constraint
+	 */
+	void importCompiled(CompiledConstraintList compiledIn, CourseList courseList, String[] ops) {
+		this.constraintsString = new ArrayList<String[]>(compiledIn.size());
+		for(int i = 0; i < compiledIn.size(); i++) {
+			this.constraintsString.add(new String[] {courseList.get(compiledIn.course1(i)).getName(),
+					ops[i], courseList.get(compiledIn.course2(i)).getName()});
+		}
+		this.lineNumbers = new int[compiledIn.size()];
+		this.fileName = null;
+		synchronized(this) {
+			this.compiled = compiledIn;
+			this.compiledCourseList = courseList;
+		}
+	}
+	/**
+	 * Returns this list compiled against the course list.
+	 * The compiled list is kept and reused while the same course list is used.
+	 * @param courseList
+	 * @return
+	 */
+	public synchronized CompiledConstraintList compile(CourseList courseList) {
+		if(this.compiled == null || this.compiledCourseList != courseList) {
+			this.compiled = new CompiledConstraintList(this, courseList);
+			this.compiledCourseList = courseList;
+		}
+		return this.compiled;
 	}
 	/**
 	 * Returns number of constraints
@@ -46,8 +111,30 @@ public class ConstraintList {
 	public int size() {
 		return this.constraintsString.size();
 	}
+	/**
+	 * Returns every constraint, one per line.
+	 */
 	public String toString() {
-		return this.stringOfConstraints;
+		StringBuilder s = new StringBuilder();
+		for(int i = 0; i < size(); i++) {
+			s.append(line(i)).append('\n');
+		}
+		return s.toString();
+	}
+	/**
+	 * Returns the line of the constraint at (index) in its input file.
+	 * @param index
+	 * @return line number starting at 1, 0 if the constraint was not imported from a file
+	 */
+	public int lineNumber(int index) {
+		return this.lineNumbers[index];
+	}
+	/**
+	 * Returns the name of the file the constraints were imported from.
+	 * @return null if the constraints were not imported from a file
+	 */
+	public String getFileName() {
+		return this.fileName;
 	}
 	/**
 	 * Returns the name of the first course of the constraint at (index).
@@ -0,0 +1,53 @@
+package csp;
+import java.util.Arrays;
+
+/**
+ * Weights of the constraints of a model, for the breakout method of escaping local minima.
+ *
+ * Each precedence constraint has a weight, and so does each day of each semester,
+ * weighing the same-day conflicts of the courses on that day. Every weight starts at 1.
+ * When a search is stuck at a local minimum, the weights of the conflicts it is stuck on are increased,
+ * so moves scored by weighted conflicts find the minimum more costly until the search walks out of it.
+ * Whether a schedule is a solution is still judged by its conflicts, not their weights.
+ *
+ * An instantiation belongs to one search chain.
+ */
+class ConstraintWeights {
+	private static final int DAYS = Day.values().length;
+
+	// constraint index  |  weight of its conflicts
+	private int[] constraintWeights;
+	// semester index * DAYS + day ordinal  |  weight of the same-day conflicts of that day
+	private int[] semesterDayWeights;
+
+	/**
+	 * Creates weights of 1 for every constraint of a model.
+	 * @param model
+	 */
+	ConstraintWeights(ScheduleModel model){
+		this.constraintWeights = new int[model.getConstraints().size()];
+		this.semesterDayWeights = new int[model.getSemesterList().numberOfSemesters() * DAYS];
+		clear();
+	}
+
+	/**
+	 * Sets every weight back to 1.
+	 */
+	void clear() {
+		Arrays.fill(this.constraintWeights, 1);
+		Arrays.fill(this.semesterDayWeights, 1);
+	}
+
+	int constraintWeight(int constraint) {
+		return this.constraintWeights[constraint];
+	}
+	int semesterDayWeight(int semesterDayIndex) {
+		return this.semesterDayWeights[semesterDayIndex];
+	}
+	void increaseConstraint(int constraint) {
+		this.constraintWeights[constraint]++;
+	}
+	void increaseSemesterDay(int semesterDayIndex) {
+		this.semesterDayWeights[semesterDayIndex]++;
+	}
+}
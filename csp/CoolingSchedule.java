@@ -0,0 +1,39 @@
+package csp;
+
+/**
+ * How the temperature of simulated annealing falls 
+ * from its initial to its final temperature over the steps of a search.
+ */
+public enum CoolingSchedule {
+	/** Falls by the same factor each step. */
+	GEOMETRIC {
+		@Override
+		public double temperature(double initial, double end, long step, long steps) {
+			return initial * Math.pow(end / initial, (double) step / steps);
+		}
+	},
+	/** Falls by the same amount each step. */
+	LINEAR {
+		@Override
+		public double temperature(double initial, double end, long step, long steps) {
+			return initial + (end - initial) * step / steps;
+		}
+	},
+	/** Falls quickly at first, then slowly, never going below the final temperature. */
+	LOGARITHMIC {
+		@Override
+		public double temperature(double initial, double end, long step, long steps) {
+			return Math.max(end, initial / Math.log(Math.E + step));
+		}
+	};
+
+	/**
+	 * Returns the temperature at a step.
+	 * @param initial temperature at step 0
+	 * @param end temperature at the last step
+	 * @param step
+	 * @param steps total steps of the search
+	 * @return
+	 */
+	public abstract double temperature(double initial, double end, long step, long steps);
+}
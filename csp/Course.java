@@ -1,6 +1,5 @@
 package csp;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * A course and it's domain of possible values.
@@ -24,8 +23,8 @@ public class Course {
 	private String[] summerIn;
 	
 	
-	// list of all possible values of the course variable, in numerical order.
-	private List<Integer> domain;
+	// all possible values of the course variable, in numerical order.
+	private int[] domain = new int[0];
 	//private int domainLength; // 
 	
 	Course(String name, String fallPar, String springPar, String summerPar){
@@ -45,6 +44,18 @@ public class Course {
 		createDaysArrays(fallPar, springPar, summerPar);
 
 	}
+	/**
+	 * Creates a course with an already created domain, such as one read from a model file.
+	 * @param name
+	 * @param fallPar
+	 * @param springPar
+	 * @param summerPar
+	 * @param domain values in domain order
+	 */
+	Course(String name, String fallPar, String springPar, String summerPar, int[] domain){
+		this(name, fallPar, springPar, summerPar);
+		this.domain = domain.clone();
+	}
 	
 	/**
 	 * Creates the entire domain of values for this course.
@@ -52,47 +63,51 @@ public class Course {
 	 * adding an entry to the domain for each day the course
 	 * is available in that Semester.
 	 * 
-	 * Format of each entry is an integer composed of courseID + enum Day value.
+	 * Format of each entry is an integer composed of semesterID * 10 + enum Day value.
 	 * @param m List of all semesters.
 	 */
 	public void createDomain(SemesterList m) {
-		this.domain = new ArrayList<Integer>();
+		int daysPerSemester = Math.max(this.fallDaysList.length, Math.max(this.springDaysList.length, this.summerDaysList.length));
+		this.domain = new int[m.numberOfSemesters() * daysPerSemester];
+		int size = 0;
 		
 		// for each semester {add courses offered during}
 		for(int i = 0; i < m.numberOfSemesters(); i++) {
-			String domainEntry = "";
 			Semester s = m.getSemesterByIndex(i);
 			Season season = s.getSeason();
 
 			// Add domain entries for the correct Season.
 			switch(season) {
 			case FALL:
-				if(this.fallDaysList[0] != null) {
-					for(Day day :this.fallDaysList) {
-						domainEntry = ""+s.getID() + day.ordinal();
-						this.domain.add(Integer.parseInt(domainEntry));
-					}
-				}
-					break;
+				size = addDomainEntries(s, this.fallDaysList, size);
+				break;
 			case SPRING:
-				if(this.springDaysList[0] != null) {
-					for(Day day : this.springDaysList) {
-						domainEntry = ""+s.getID() + day.ordinal();
-						this.domain.add(Integer.parseInt(domainEntry));
-					}
-				}
+				size = addDomainEntries(s, this.springDaysList, size);
 				break;
 			case SUMMER:
-				if(this.summerDaysList[0] != null) {
-					for(Day day : this.summerDaysList) {
-						domainEntry = ""+s.getID() + day.ordinal();
-						this.domain.add(Integer.parseInt(domainEntry));
-					}
-				}
+				size = addDomainEntries(s, this.summerDaysList, size);
 				break;
 			default:
 			}
 		}
+		this.domain = Arrays.copyOf(this.domain, size);
+	}
+
+	/**
+	 * Assistant method to createDomain.
+	 * Adds an entry to the domain for each day the course is offered in semester s.
+	 * @param s
+	 * @param days offered in the season of s, starting with null if none
+	 * @param size entries of the domain before s
+	 * @return entries of the domain after s
+	 */
+	private int addDomainEntries(Semester s, Day[] days, int size) {
+		if(days[0] != null) {
+			for(Day day : days) {
+				this.domain[size++] = s.getID() * 10 + day.ordinal();
+			}
+		}
+		return size;
 	}
 
 	/**
@@ -120,8 +135,26 @@ public class Course {
 		}
 	}
 
+	/**
+	 * Removes every domain entry outside of a range of semesters.
+	 * @param minimumSemesterID earliest semester kept
+	 * @param maximumSemesterID latest semester kept
+	 * @return number of entries removed
+	 */
+	public int restrictDomain(int minimumSemesterID, int maximumSemesterID) {
+		int kept = 0;
+		for(int value : this.domain) {
+			if(value / 10 >= minimumSemesterID && value / 10 <= maximumSemesterID) {
+				this.domain[kept++] = value;
+			}
+		}
+		int removed = this.domain.length - kept;
+		this.domain = Arrays.copyOf(this.domain, kept);
+		return removed;
+	}
+
 	public int getDomainSize() {
-		return this.domain.size();
+		return this.domain.length;
 	}
 	/**
 	 * For parameter season, returns a Day Array of days for that season.
@@ -139,6 +172,23 @@ public class Course {
 		}	
 		return null;
 	}
+	/**
+	 * For parameter season, returns the days the course is offered as in the input file,
+	 * such as "MT", or "-" if none.
+	 * @param season
+	 * @return
+	 */
+	public String getSeasonString(Season season) {
+		switch(season) {
+		case FALL:
+			return this.fallString;
+		case SPRING:
+			return this.springString;
+		case SUMMER:
+			return this.summerString;
+		}
+		return null;
+	}
 	
 	/**
 	 * For an input number, returns the domain value at that index.
@@ -146,7 +196,20 @@ public class Course {
 	 * @return
 	 */
 	public int getDomainEntry(int index) {
-		return this.domain.get(index);
+		return this.domain[index];
+	}
+	/**
+	 * Returns true if value is in the domain of this course.
+	 * @param value semesterID+day
+	 * @return
+	 */
+	public boolean hasDomainEntry(int value) {
+		for(int entry : this.domain) {
+			if(entry == value) {
+				return true;
+			}
+		}
+		return false;
 	}
 	
 	public String toStringInputStyled() {
@@ -160,18 +223,16 @@ public class Course {
 		}
 
 	public String toStringDomainByLine() {
-		String s = "";
-		for(int i = 0; i < this.domain.size(); i++)
-			s = s.concat(String.valueOf(this.domain.get(i))+"\n");
-		s.trim();
-		return s;
+		StringBuilder s = new StringBuilder();
+		for(int value : this.domain)
+			s.append(value).append('\n');
+		return s.toString();
 	}
 	public String toStringDomainBySpaces() {
-		String s = "";
-		for(int i = 0; i < this.domain.size(); i++)
-			s = s.concat(String.valueOf(this.domain.get(i))+"  ");
-		s.trim();
-		return s;
+		StringBuilder s = new StringBuilder();
+		for(int value : this.domain)
+			s.append(value).append("  ");
+		return s.toString();
 	}
 	public String getName() {
 		return this.name;
@@ -1,11 +1,15 @@
 package csp;
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Random;
-import java.util.Scanner;
+import java.util.SplittableRandom;
 
 /**
  * Container for Courses.
@@ -14,47 +18,98 @@ import java.util.Scanner;
  */
 public class CourseList extends ArrayList<Course>{
 	private Map<String, Course> mapNameToCourse;
-	private String stringOfInputCourses= "";
-	private String valueSeparator = "\\s+";
-	private String[] inputStringArray;
+	private Map<String, Integer> mapNameToIndex;
 	
 	/**
-	 * Instantiates courses from a parameter file.
+	 * Instantiates courses from a parameter file, read one line at a time.
+	 * The first line is a header, each line after it is a course: its name,
+	 * then the days it is offered in fall, spring, & summer, such as MT, or - for none.
 	 * A semesterList is a necessary parameter in order to create
 	 * the domain for each course.
 	 * @param f File of courses
 	 * @param m SemesterList to obtain value domains from.
+	 * @throws IllegalArgumentException naming the line of a course that cannot be imported, or where the file cannot be read
 	 */
 	public void importCoursesFromFile(File f, SemesterList m) {
-		Scanner scanner;
-		String line = "";
-		try {
-			scanner = new Scanner(f);
-			while(scanner.hasNextLine()){
-				line = line.concat("\n"+scanner.nextLine());
+		createCourseMaps();
+		int lineNumber = 0;
+		try(BufferedReader reader = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			boolean header = true;
+			while((line = reader.readLine()) != null) {
+				lineNumber++;
+				String[] r = Util.splitValues(line);
+				if(r.length == 0) {
+					continue;
+				}
+				if(header) {
+					header = false;
+					continue;
+				}
+				addCourse(f, lineNumber, r);
 			}
-			scanner.close();
-		} catch (FileNotFoundException e) {
+		} catch (IOException e) {
+			throw Util.readError(f, lineNumber, e);
 		}
-		this.stringOfInputCourses = line;
-		this.inputStringArray = line.split(this.valueSeparator);
-		createCourses();
 		createCourseDomains(m);
-		createCourseMaps();
 	}
 	
 	/**
-	 * Assistant method to importCourses.
-	 * Creates multiple courses from inputStringArray.
+	 * Assistant method to importCoursesFromFile.
+	 * Creates a course from the values of a line, & adds it to this list & the maps.
+	 * @param f
+	 * @param lineNumber
+	 * @param r values of the line
+	 */
+	private void addCourse(File f, int lineNumber, String[] r) {
+		if(r.length != 4) {
+			throw Util.inputError(f, lineNumber, "expected a course & its days in 3 seasons, found " + r.length + " values");
+		}
+		for(int i = 1; i < 4; i++) {
+			if(!isDays(r[i])) {
+				throw Util.inputError(f, lineNumber, "invalid days " + r[i] + " of course " + r[0]
+						+ ", expected letters of " + Arrays.toString(Day.values()) + " or -");
+			}
+		}
+		if(this.mapNameToCourse.containsKey(r[0])) {
+			throw Util.inputError(f, lineNumber, "duplicate course " + r[0]);
+		}
+		Course c = new Course(r[0], r[1], r[2], r[3]);
+		this.mapNameToCourse.put(c.getName(), c);
+		this.mapNameToIndex.put(c.getName(), this.size());
+		this.add(c);
+	}
+	
+	/**
+	 * Returns true if days is - or only letters of Days.
+	 * @param days
+	 * @return
 	 */
-	private void createCourses() {
-		String[] r = this.inputStringArray;
-		//Starts at index 4 to skip headers, skips to next course index for loop.
-		for(int i = 5; i < this.inputStringArray.length-3; i= i+4) {
-			Course c = new Course(r[i], r[i+1], r[i+2], r[i+3]);
-			this.add(c);
+	private static boolean isDays(String days) {
+		if(days.equals("-")) {
+			return true;
 		}
+		for(int i = 0; i < days.length(); i++) {
+			boolean found = false;
+			for(Day day : Day.values()) {
+				found |= day.name().charAt(0) == days.charAt(i);
+			}
+			if(!found) {
+				return false;
+			}
+		}
+		return true;
 	}
+	
+	/**
+	 * Adds already created courses, with their domains, such as ones read from a model file.
+	 * @param courses
+	 */
+	void importCourses(List<Course> courses) {
+		this.addAll(courses);
+		createCourseMaps();
+	}
+	
 	/**
 	 * Assistant method to importCourses to create domains for each course.
 	 */
@@ -71,8 +126,10 @@ public class CourseList extends ArrayList<Course>{
 	 */
 	private void createCourseMaps() {
 		this.mapNameToCourse = new HashMap<String, Course>();
+		this.mapNameToIndex = new HashMap<String, Integer>();
 		for(int i = 0; i < this.size(); i++) {
 			this.mapNameToCourse.put(this.get(i).getName(), this.get(i)); 
+			this.mapNameToIndex.put(this.get(i).getName(), i);
 		}
 	}
 	/**
@@ -83,33 +140,53 @@ public class CourseList extends ArrayList<Course>{
 	public Course getCourseByName(String name) {
 		return this.mapNameToCourse.get(name);
 	}
+	/**
+	 * Retrieves the index of a course in this list by name.
+	 * @param name of the course
+	 * @return index of the course
+	 */
+	public int getCourseIndex(String name) {
+		return this.mapNameToIndex.get(name);
+	}
+	/**
+	 * Retrieves the index of a course in this list by name, if it has one.
+	 * @param name of the course
+	 * @return index of the course, -1 if there is no course of that name
+	 */
+	public int findCourseIndex(String name) {
+		Integer index = this.mapNameToIndex.get(name);
+		return index == null ? -1 : index;
+	}
 	/** 
 	 * Returns a random course name from the list of Courses.
+	 * @param r random stream of the search
 	 * @return String: courseName
 	 */
-	public String getRandomCourseName() {
-		Random r = new Random();
+	public String getRandomCourseName(SplittableRandom r) {
 		int range = this.size();
 		return this.get(r.nextInt(range)).getName();
 	}
 	/**
-	 * Returns the string captured while importing Courses from file.
+	 * Returns the courses in the format of the input file.
 	 * @return
 	 */
 	public String toStringInputFile() {
-		return this.stringOfInputCourses;
+		StringBuilder s = new StringBuilder("COURSE\tFall\tSpring\tSummer\n");
+		for(int i = 0; i < this.size(); i++) {
+			s.append(this.get(i).toStringInputStyled()).append('\n');
+		}
+		return s.toString();
 	}
 	/**
 	 * Returns a string containing the domains of all courses in the list.
 	 * @return
 	 */
 	public String toStringAllCourseDomains() {
-		String s = "";
+		StringBuilder s = new StringBuilder();
 		for(int i = 0; i < this.size(); i++) {
-			Course c = this.get(i);
-			s = s.concat(c.toStringDomainBySpaces()+"\n");
+			s.append(this.get(i).toStringDomainBySpaces()).append('\n');
 		}
-		return s;
+		return s.toString();
 	}
 	private static final long serialVersionUID = 7843602543576923584L;
 }
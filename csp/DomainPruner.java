@@ -0,0 +1,160 @@
+package csp;
+import java.util.Arrays;
+
+/**
+ * Removes course values that can never satisfy the "<" and "<=" constraints.
+ * 
+ * Keeps the earliest and latest possible semester of each course, and makes each
+ * constraint bounds consistent: for "A < B", B's earliest semester must be after A's earliest,
+ * and A's latest semester must be before B's latest. 
+ * Whenever a course's bounds change, its constraints are checked again, until none change.
+ * Long prerequisite chains push later courses out of the first semesters this way.
+ * 
+ * Same-day constraints are not used, as they depend on the values of other courses.
+ */
+public class DomainPruner {
+	private CourseList courseList;
+	private CompiledConstraintList constraints;
+
+	// course index  |  sorted semester IDs of the course's domain
+	private int[][] semesters;
+	// course index  |  index in semesters of the earliest & latest possible semester
+	private int[] earliest;
+	private int[] latest;
+
+	private int removedValues;
+
+	DomainPruner(ConstraintList c, CourseList courseList){
+		this.courseList = courseList;
+		this.constraints = c.compile(courseList);
+	}
+
+	/**
+	 * Prunes the domain of every course in the course list.
+	 * If some course would have no values left, the constraints cannot be satisfied
+	 * and no domain is changed.
+	 * @return false if the constraints cannot be satisfied.
+	 */
+	public boolean prune() {
+		this.removedValues = 0;
+		initializeBounds();
+		// a course offered in no semester has no bounds, and no value to satisfy anything with
+		for(int i = 0; i < this.semesters.length; i++) {
+			if(this.semesters[i].length == 0) {
+				return false;
+			}
+		}
+
+		// constraint indexes waiting to be checked, as a circular queue
+		int size = this.constraints.size();
+		int[] queue = new int[size];
+		boolean[] queued = new boolean[size];
+		int head = 0;
+		int queueCount = size;
+		for(int i = 0; i < size; i++) {
+			queue[i] = i;
+			queued[i] = true;
+		}
+
+		while(queueCount > 0) {
+			int index = queue[head];
+			head = (head + 1) % size;
+			queueCount--;
+			queued[index] = false;
+
+			int course1 = this.constraints.course1(index);
+			int course2 = this.constraints.course2(index);
+			if(this.constraints.op(index) == CompiledConstraintList.OP_UNKNOWN) {
+				continue;
+			}
+			boolean strict = this.constraints.op(index) == CompiledConstraintList.OP_LESS;
+
+			// the last course must be after the earliest semester of the first course
+			int earliestSemester = this.semesters[course1][this.earliest[course1]];
+			boolean course2Changed = false;
+			while(this.earliest[course2] <= this.latest[course2] 
+					&& !isAfter(this.semesters[course2][this.earliest[course2]], earliestSemester, strict)) {
+				this.earliest[course2]++;
+				course2Changed = true;
+			}
+
+			// the first course must be before the latest semester of the last course
+			boolean course1Changed = false;
+			if(this.earliest[course2] <= this.latest[course2]) {
+				int latestSemester = this.semesters[course2][this.latest[course2]];
+				while(this.earliest[course1] <= this.latest[course1] 
+						&& !isAfter(latestSemester, this.semesters[course1][this.latest[course1]], strict)) {
+					this.latest[course1]--;
+					course1Changed = true;
+				}
+			}
+
+			if(this.earliest[course1] > this.latest[course1] || this.earliest[course2] > this.latest[course2]) {
+				return false;
+			}
+
+			// check the other constraints of each changed course again
+			for(int course : new int[] {course1Changed ? course1 : -1, course2Changed ? course2 : -1}) {
+				if(course == -1) {
+					continue;
+				}
+				int[] courseConstraints = this.constraints.getCourseConstraints(course);
+				for(int j = 0; j < courseConstraints.length; j++) {
+					int other = courseConstraints[j];
+					if(!queued[other]) {
+						queue[(head + queueCount) % size] = other;
+						queued[other] = true;
+						queueCount++;
+					}
+				}
+			}
+		}
+
+		// remove values outside of the bounds of each course
+		for(int i = 0; i < this.courseList.size(); i++) {
+			this.removedValues += this.courseList.get(i).restrictDomain(
+					this.semesters[i][this.earliest[i]], this.semesters[i][this.latest[i]]);
+		}
+		return true;
+	}
+
+	/**
+	 * Sets the bounds of each course to the first and last semester of its domain.
+	 */
+	private void initializeBounds() {
+		int courseCount = this.courseList.size();
+		this.semesters = new int[courseCount][];
+		this.earliest = new int[courseCount];
+		this.latest = new int[courseCount];
+		for(int i = 0; i < courseCount; i++) {
+			Course course = this.courseList.get(i);
+			int[] courseSemesters = new int[course.getDomainSize()];
+			for(int j = 0; j < course.getDomainSize(); j++) {
+				courseSemesters[j] = course.getDomainEntry(j) / 10;
+			}
+			Arrays.sort(courseSemesters);
+			this.semesters[i] = courseSemesters;
+			this.earliest[i] = 0;
+			this.latest[i] = courseSemesters.length - 1;
+		}
+	}
+
+	/**
+	 * Returns true if semester is after other, or the same semester when not strict.
+	 * @param semester
+	 * @param other
+	 * @param strict
+	 * @return
+	 */
+	private static boolean isAfter(int semester, int other, boolean strict) {
+		return strict ? semester > other : semester >= other;
+	}
+
+	/**
+	 * Returns the number of values removed by the last prune.
+	 * @return
+	 */
+	public int getRemovedValues() {
+		return this.removedValues;
+	}
+}
@@ -29,20 +29,50 @@ public class Driver {
 		inputFileConstraints = new File(workingDirectory, inputFileConstraintsName);
 		inputFileSemesterMap = new File(workingDirectory, inputFileSemesterMapName);
 		
-		// Import: classes, constraints, & semester map
-		constraintList.importConstraintsToString(inputFileConstraints);
-		semesters.importSemesterMap(inputFileSemesterMap);
-		courseList.importCoursesFromFile(inputFileClasses, semesters);
+		// Import: classes, constraints, & semester map, or a compiled model file if given
+		ScheduleModel model;
+		if(args.length > 1) {
+			try {
+				model = ModelFile.load(new File(args[1]));
+			} catch (IOException e) {
+				System.out.println(e.getMessage());
+				return;
+			}
+		}
+		else {
+			constraintList.importConstraintsToString(inputFileConstraints);
+			semesters.importSemesterMap(inputFileSemesterMap);
+			courseList.importCoursesFromFile(inputFileClasses, semesters);
+			model = new ScheduleModel(constraintList, courseList, semesters);
+		}
 		
 		// Instantiate CSP File
-		CSPAlgorithm alg = new CSPAlgorithm(constraintList, courseList, semesters);
+		CSPAlgorithm alg = new CSPAlgorithm(model);
+		
+		// Seed of a run to repeat, if given
+		if(args.length > 0) {
+			alg.setSeed(Long.parseLong(args[0]));
+		}
+		
+		// Remove values the constraints rule out before searching
+		if(!alg.pruneDomains()) {
+			System.out.println("The constraints cannot be satisfied by any schedule.");
+			return;
+		}
+		
+		// Stream intermediate schedules to the output file while searching
+		TraceSink trace = new AsyncFileTraceSink(getOutputFile());
+		alg.setTraceSink(trace);
 	
 		// Run search
 		Schedule returnedSchedule = alg.twoStageChoiceRandomSelectionAndRandomRestart();
+		trace.close();
 		
 		// Print final schedule to system out, and final & intermediate results to output file.
 		System.out.println("\n"+alg.getLastStatsMostImproving()+"\n"+returnedSchedule.toString());
-		pf(Util.getTracker()+"\n\n"+alg.getLastStatsMostImproving()+"\n"+returnedSchedule.toString());
+		System.out.println("Metrics: "+alg.getMetrics().toJson());
+		System.out.println("Seed: "+alg.getLastSearchSeed());
+		pf(trace.getTrace()+"\n\n"+alg.getLastStatsMostImproving()+"\n"+returnedSchedule.toString());
 
 		
 	}
@@ -51,10 +81,7 @@ public class Driver {
 	 * @param s
 	 */
 	public static void pf(String s) {
-		File workingDirectory = new File(System.getProperty("user.dir"));
-		String outputFileName = "ConstraintSatisfactionOutput.txt";
-
-		File outputFile = new File(workingDirectory, outputFileName);
+		File outputFile = getOutputFile();
 		try (FileWriter fw = new FileWriter(outputFile, true)) {
 			fw.write(s);
 			fw.close();
@@ -62,4 +89,13 @@ public class Driver {
 		}	
 		System.out.println("\nFinal and intermediate schedule results printed to file:\n\n" +outputFile);
 	}
+	/**
+	 * Returns the file results are printed to.
+	 * @return
+	 */
+	public static File getOutputFile() {
+		File workingDirectory = new File(System.getProperty("user.dir"));
+		String outputFileName = "ConstraintSatisfactionOutput.txt";
+		return new File(workingDirectory, outputFileName);
+	}
 }
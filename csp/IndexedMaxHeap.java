@@ -0,0 +1,225 @@
+package csp;
+import java.util.SplittableRandom;
+
+/**
+ * Max heap of a fixed set of items, numbered 0 to size-1, each with an int key.
+ * Tracks the heap position of each item so any item's key can be changed in O(log n).
+ * Used to select the course with most conflicts as conflicts change.
+ */
+public class IndexedMaxHeap {
+	private int[] heap;		// heap position  |  item
+	private int[] position;	// item  |  heap position
+	private int[] key;		// item  |  key
+	private int[] stack;	// heap positions left to visit when searching the top of the heap
+
+	/**
+	 * Creates a heap of size items, each with a key of 0.
+	 * @param size
+	 */
+	IndexedMaxHeap(int size){
+		this.heap = new int[size];
+		this.position = new int[size];
+		this.key = new int[size];
+		this.stack = new int[size];
+		for(int i = 0; i < size; i++) {
+			this.heap[i] = i;
+			this.position[i] = i;
+		}
+	}
+
+	/**
+	 * Creates a copy of another heap.
+	 * @param other
+	 */
+	IndexedMaxHeap(IndexedMaxHeap other){
+		this.heap = other.heap.clone();
+		this.position = other.position.clone();
+		this.key = other.key.clone();
+		this.stack = new int[other.stack.length];
+	}
+
+	public int size() {
+		return this.heap.length;
+	}
+
+	public int getKey(int item) {
+		return this.key[item];
+	}
+
+	/**
+	 * Sets the key of an item without ordering the heap.
+	 * Call heapify() once all keys are set.
+	 * @param item
+	 * @param newKey
+	 */
+	public void setKeyUnordered(int item, int newKey) {
+		this.key[item] = newKey;
+	}
+
+	/**
+	 * Orders the whole heap by the current keys in O(n).
+	 */
+	public void heapify() {
+		for(int i = this.heap.length / 2 - 1; i >= 0; i--) {
+			siftDown(i);
+		}
+	}
+
+	/**
+	 * Changes the key of an item, keeping the heap in order.
+	 * @param item
+	 * @param newKey
+	 */
+	public void update(int item, int newKey) {
+		int oldKey = this.key[item];
+		this.key[item] = newKey;
+		if(newKey > oldKey) {
+			siftUp(this.position[item]);
+		}
+		else if(newKey < oldKey) {
+			siftDown(this.position[item]);
+		}
+	}
+
+	/**
+	 * Returns an item with the highest key.
+	 * @return
+	 */
+	public int max() {
+		return this.heap[0];
+	}
+
+	/**
+	 * Returns an item with the highest key,
+	 * choosing at random between items tied for the highest key.
+	 * Only visits the tied items and their children.
+	 * @param r
+	 * @return
+	 */
+	public int maxRandomTie(SplittableRandom r) {
+		int maxKey = this.key[this.heap[0]];
+		int chosen = this.heap[0];
+		int ties = 0;
+		int stackSize = 0;
+		this.stack[stackSize++] = 0;
+		while(stackSize > 0) {
+			int p = this.stack[--stackSize];
+			int item = this.heap[p];
+			if(this.key[item] != maxKey) {
+				continue;
+			}
+			// each tied item replaces the choice with chance 1/ties
+			ties++;
+			if(r.nextInt(ties) == 0) {
+				chosen = item;
+			}
+			if(2 * p + 1 < this.heap.length) {
+				this.stack[stackSize++] = 2 * p + 1;
+			}
+			if(2 * p + 2 < this.heap.length) {
+				this.stack[stackSize++] = 2 * p + 2;
+			}
+		}
+		return chosen;
+	}
+
+	/**
+	 * Returns up to k items with the highest keys, highest first.
+	 * Visits O(k log k) heap positions.
+	 * @param k
+	 * @return
+	 */
+	public int[] top(int k) {
+		k = Math.min(k, this.heap.length);
+		int[] result = new int[k];
+		if(k == 0) {
+			return result;
+		}
+		// candidate heap positions, kept as a max heap by key
+		int[] candidates = new int[2 * k + 1];
+		int candidateCount = 0;
+		candidates[candidateCount++] = 0;
+		for(int i = 0; i < k; i++) {
+			int p = candidates[0];
+			candidates[0] = candidates[--candidateCount];
+			siftDownCandidates(candidates, candidateCount, 0);
+			result[i] = this.heap[p];
+			for(int child = 2 * p + 1; child <= 2 * p + 2 && child < this.heap.length; child++) {
+				candidates[candidateCount] = child;
+				siftUpCandidates(candidates, candidateCount++);
+			}
+		}
+		return result;
+	}
+
+	private void siftUpCandidates(int[] candidates, int c) {
+		while(c > 0 && keyAt(candidates[(c - 1) / 2]) < keyAt(candidates[c])) {
+			swapCandidates(candidates, c, (c - 1) / 2);
+			c = (c - 1) / 2;
+		}
+	}
+
+	private void siftDownCandidates(int[] candidates, int count, int c) {
+		while(2 * c + 1 < count) {
+			int child = 2 * c + 1;
+			if(child + 1 < count && keyAt(candidates[child + 1]) > keyAt(candidates[child])) {
+				child++;
+			}
+			if(keyAt(candidates[c]) >= keyAt(candidates[child])) {
+				return;
+			}
+			swapCandidates(candidates, c, child);
+			c = child;
+		}
+	}
+
+	private static void swapCandidates(int[] candidates, int a, int b) {
+		int temp = candidates[a];
+		candidates[a] = candidates[b];
+		candidates[b] = temp;
+	}
+
+	/**
+	 * Returns the key of the item at heap position p.
+	 * @param p
+	 * @return
+	 */
+	private int keyAt(int p) {
+		return this.key[this.heap[p]];
+	}
+
+	private void siftUp(int p) {
+		while(p > 0 && keyAt((p - 1) / 2) < keyAt(p)) {
+			swap(p, (p - 1) / 2);
+			p = (p - 1) / 2;
+		}
+	}
+
+	private void siftDown(int p) {
+		while(2 * p + 1 < this.heap.length) {
+			int child = 2 * p + 1;
+			if(child + 1 < this.heap.length && keyAt(child + 1) > keyAt(child)) {
+				child++;
+			}
+			if(keyAt(p) >= keyAt(child)) {
+				return;
+			}
+			swap(p, child);
+			p = child;
+		}
+	}
+
+	/**
+	 * Swaps the items at two heap positions.
+	 * @param a
+	 * @param b
+	 */
+	private void swap(int a, int b) {
+		int itemA = this.heap[a];
+		int itemB = this.heap[b];
+		this.heap[a] = itemB;
+		this.heap[b] = itemA;
+		this.position[itemB] = a;
+		this.position[itemA] = b;
+	}
+}
@@ -0,0 +1,296 @@
+package csp;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary file of a compiled ScheduleModel, so a solver process can load a catalog
+ * without parsing its text input files.
+ *
+ * A model file is written from a model that has already been imported & validated,
+ * and holds its semester table, courses with their domains in domain order,
+ * and constraints compiled to course indexes & operator codes.
+ * It is read through a memory-mapped buffer.
+ *
+ * Layout, big-endian, each String as an int byte length & its UTF-8 bytes:
+ * 	int magic "CSPM", int version, String fingerprint of the model
+ * 	int semester count, per semester: byte season, int year, int ID, String name
+ * 	int course count, per course: String name, fall days, spring days, summer days,
+ * 		int domain size, int value per domain entry
+ * 	int operator count, String per operator
+ * 	int constraint count, per constraint: int first course index, int last course index, int operator index
+ * 	int CRC-32 of every byte before it
+ *
+ * Compile a model file with:
+ * 	java csp.ModelFile classes.txt constraints.txt semesterMapping.txt model.cspm
+ */
+public class ModelFile {
+	static final int MAGIC = 0x4353504D;
+	static final int VERSION = 1;
+
+	private ModelFile() {
+	}
+
+	/**
+	 * Compiles the 3 input files to a model file.
+	 * Arguments: classes file, constraints file, semester map file, model file written.
+	 * @param args
+	 * @throws IOException if the model file cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length != 4) {
+			System.out.println("Arguments: classes constraints semesterMap modelFile");
+			return;
+		}
+		long start = System.nanoTime();
+		ScheduleModel model = ScheduleModel.importFiles(new File(args[0]), new File(args[1]), new File(args[2]));
+		File f = new File(args[3]);
+		write(model, f);
+		System.out.println(String.format("Compiled %d courses, %d constraints, & %d semesters to %s in %.1f ms.",
+				model.getCourseCount(), model.getConstraints().size(),
+				model.getSemesterList().numberOfSemesters(), f, (System.nanoTime() - start) / 1e6));
+	}
+
+	/**
+	 * Writes a model to a file, through a temporary file
+	 * so a model file is never read half written.
+	 * @param model
+	 * @param f
+	 * @throws IOException
+	 */
+	public static void write(ScheduleModel model, File f) throws IOException {
+		File directory = f.getAbsoluteFile().getParentFile();
+		File temp = File.createTempFile(f.getName(), ".tmp", directory);
+		try {
+			CRC32 crc = new CRC32();
+			try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+					new CheckedOutputStream(Files.newOutputStream(temp.toPath()), crc)))) {
+				writeModel(model, out);
+				out.flush();
+				out.writeInt((int) crc.getValue());
+			}
+			Files.move(temp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Assistant method to write.
+	 * @param model
+	 * @param out
+	 * @throws IOException
+	 */
+	private static void writeModel(ScheduleModel model, DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		writeString(out, model.getFingerprint());
+
+		SemesterList semesterList = model.getSemesterList();
+		out.writeInt(semesterList.numberOfSemesters());
+		for(int i = 0; i < semesterList.numberOfSemesters(); i++) {
+			Semester s = semesterList.getSemesterByIndex(i);
+			out.writeByte(s.getSeason().ordinal());
+			out.writeInt(s.getYear());
+			out.writeInt(s.getID());
+			writeString(out, s.getName());
+		}
+
+		CourseList courseList = model.getCourseList();
+		out.writeInt(courseList.size());
+		for(int i = 0; i < courseList.size(); i++) {
+			Course course = courseList.get(i);
+			writeString(out, course.getName());
+			writeString(out, course.getSeasonString(Season.FALL));
+			writeString(out, course.getSeasonString(Season.SPRING));
+			writeString(out, course.getSeasonString(Season.SUMMER));
+			int[] values = model.getValues(i);
+			out.writeInt(values.length);
+			for(int value : values) {
+				out.writeInt(value);
+			}
+		}
+
+		// operators are few, so each constraint stores the index of its operator string
+		ConstraintList constraintList = model.getConstraintList();
+		CompiledConstraintList constraints = model.getConstraints();
+		List<String> ops = new ArrayList<>();
+		Map<String, Integer> opIndexes = new HashMap<>();
+		int[] constraintOps = new int[constraints.size()];
+		for(int i = 0; i < constraints.size(); i++) {
+			String op = constraintList.op(i);
+			Integer index = opIndexes.get(op);
+			if(index == null) {
+				index = ops.size();
+				ops.add(op);
+				opIndexes.put(op, index);
+			}
+			constraintOps[i] = index;
+		}
+		out.writeInt(ops.size());
+		for(String op : ops) {
+			writeString(out, op);
+		}
+		out.writeInt(constraints.size());
+		for(int i = 0; i < constraints.size(); i++) {
+			out.writeInt(constraints.course1(i));
+			out.writeInt(constraints.course2(i));
+			out.writeInt(constraintOps[i]);
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Loads the model of a model file.
+	 * @param f
+	 * @return
+	 * @throws IOException if the file cannot be read, is not a model file, is of another version,
+	 * 		or does not match its CRC-32
+	 */
+	public static ScheduleModel load(File f) throws IOException {
+		MappedByteBuffer buffer;
+		try(FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		try {
+			if(buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+				throw new IOException("Not a model file: " + f);
+			}
+			int version = buffer.getInt();
+			if(version != VERSION) {
+				throw new IOException("Model file " + f + " is version " + version + ", expected " + VERSION);
+			}
+			int end = buffer.limit() - 4;
+			CRC32 crc = new CRC32();
+			crc.update(buffer.duplicate().position(0).limit(end));
+			if(end < 8 || (int) crc.getValue() != buffer.getInt(end)) {
+				throw new IOException("Model file is corrupt: " + f + " does not match its CRC-32");
+			}
+			buffer.limit(end);
+			ScheduleModel model = readModel(buffer);
+			if(buffer.hasRemaining()) {
+				throw new IOException("Model file is corrupt: " + f);
+			}
+			return model;
+		} catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new IOException("Model file is corrupt: " + f, e);
+		}
+	}
+
+	/**
+	 * Assistant method to load.
+	 * Reads the model after the version.
+	 * @param buffer
+	 * @return
+	 * @throws IOException if a count or index is out of range
+	 */
+	private static ScheduleModel readModel(ByteBuffer buffer) throws IOException {
+		String fingerprint = readString(buffer);
+
+		Season[] seasons = Season.values();
+		int semesterCount = readCount(buffer, 13);
+		List<Semester> semesters = new ArrayList<>(semesterCount);
+		for(int i = 0; i < semesterCount; i++) {
+			Season season = seasons[buffer.get()];
+			int year = buffer.getInt();
+			int id = buffer.getInt();
+			semesters.add(new Semester(season, year, id, readString(buffer)));
+		}
+		SemesterList semesterList = new SemesterList();
+		semesterList.importSemesters(semesters);
+
+		int courseCount = readCount(buffer, 20);
+		List<Course> courses = new ArrayList<>(courseCount);
+		for(int i = 0; i < courseCount; i++) {
+			String name = readString(buffer);
+			String fall = readString(buffer);
+			String spring = readString(buffer);
+			String summer = readString(buffer);
+			int[] domain = new int[readCount(buffer, 4)];
+			buffer.asIntBuffer().get(domain);
+			buffer.position(buffer.position() + domain.length * 4);
+			courses.add(new Course(name, fall, spring, summer, domain));
+		}
+		CourseList courseList = new CourseList();
+		courseList.importCourses(courses);
+
+		String[] ops = new String[readCount(buffer, 4)];
+		int[] opCodes = new int[ops.length];
+		for(int i = 0; i < ops.length; i++) {
+			ops[i] = readString(buffer);
+			opCodes[i] = CompiledConstraintList.compileOp(ops[i]);
+		}
+		int constraintCount = readCount(buffer, 12);
+		int[] course1 = new int[constraintCount];
+		int[] course2 = new int[constraintCount];
+		int[] op = new int[constraintCount];
+		String[] constraintOps = new String[constraintCount];
+		for(int i = 0; i < constraintCount; i++) {
+			course1[i] = readIndex(buffer, courseCount);
+			course2[i] = readIndex(buffer, courseCount);
+			int opIndex = readIndex(buffer, ops.length);
+			op[i] = opCodes[opIndex];
+			constraintOps[i] = ops[opIndex];
+		}
+		ConstraintList constraintList = new ConstraintList();
+		constraintList.importCompiled(new CompiledConstraintList(course1, course2, op, courseCount), courseList, constraintOps);
+
+		return new ScheduleModel(constraintList, courseList, semesterList, fingerprint);
+	}
+
+	/**
+	 * Reads a count of entries, each at least entryBytes long.
+	 * @param buffer
+	 * @param entryBytes
+	 * @return
+	 * @throws IOException if the rest of the buffer is too short for that many entries
+	 */
+	private static int readCount(ByteBuffer buffer, int entryBytes) throws IOException {
+		int count = buffer.getInt();
+		if(count < 0 || (long) count * entryBytes > buffer.remaining()) {
+			throw new IOException("Model file is corrupt: count of " + count + " is out of range");
+		}
+		return count;
+	}
+
+	/**
+	 * Reads an index, less than size.
+	 * @param buffer
+	 * @param size
+	 * @return
+	 * @throws IOException if the index is out of range
+	 */
+	private static int readIndex(ByteBuffer buffer, int size) throws IOException {
+		int index = buffer.getInt();
+		if(index < 0 || index >= size) {
+			throw new IOException("Model file is corrupt: index " + index + " is out of range");
+		}
+		return index;
+	}
+
+	private static String readString(ByteBuffer buffer) throws IOException {
+		byte[] bytes = new byte[readCount(buffer, 1)];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
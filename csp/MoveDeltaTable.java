@@ -0,0 +1,271 @@
+package csp;
+import java.util.SplittableRandom;
+
+/**
+ * Cached change in conflicts of every move of one schedule, every course to every value of its domain,
+ * for the best-improvement search of CSPAlgorithm.
+ *
+ * Moving a course changes the deltas of:
+ * 	the moved course, and every course sharing a constraint with it: their whole rows,
+ * 	the courses on its old and new day: their whole rows, as their own day's count changed,
+ * 	every other value on its old and new day: one entry each.
+ * After a move only those are recalculated, rows lazily before the next best move is chosen.
+ * Each row keeps its lowest delta, so the best move of the schedule is found in one pass over the courses.
+ * Increasing the weights of a course's conflicts changes the same deltas as moving it.
+ *
+ * An instantiation belongs to one search chain, and follows one schedule from reset() on.
+ */
+class MoveDeltaTable {
+	private final ScheduleModel model;
+	private final CompiledConstraintList constraints;
+	// course index, domain index  |  change in conflicts of moving the course to that value
+	private final int[][] deltas;
+	// course index  |  domain index of the lowest delta, not counting the current value, -1 for none
+	private final int[] rowBest;
+	// course index  |  true if its row must be recalculated, the courses listed in dirtyCourses
+	private final boolean[] dirty;
+	private final int[] dirtyCourses;
+	private int dirtyCount;
+
+	private Schedule schedule;
+	private ConstraintWeights weights;	// null to score raw conflicts
+	private SplittableRandom random;
+	private long evaluations;
+
+	/**
+	 * @param model
+	 */
+	MoveDeltaTable(ScheduleModel model){
+		this.model = model;
+		this.constraints = model.getConstraints();
+		int courseCount = model.getCourseCount();
+		this.deltas = new int[courseCount][];
+		for(int i = 0; i < courseCount; i++) {
+			this.deltas[i] = new int[model.getValues(i).length];
+		}
+		this.rowBest = new int[courseCount];
+		this.dirty = new boolean[courseCount];
+		this.dirtyCourses = new int[courseCount];
+	}
+
+	/**
+	 * Follows a schedule, such as a new random schedule, marking every row to be recalculated.
+	 * Assumes that calculateAllViolations() has been run for the schedule.
+	 * @param schedule
+	 * @param weights of the conflicts, null for raw conflicts
+	 * @param random breaks ties between moves
+	 */
+	void reset(Schedule schedule, ConstraintWeights weights, SplittableRandom random) {
+		this.schedule = schedule;
+		this.weights = weights;
+		this.random = random;
+		for(int i = 0; i < this.deltas.length; i++) {
+			markDirty(i);
+		}
+	}
+
+	/**
+	 * Updates the deltas changed by a move the schedule has already made.
+	 * @param course index of the moved course
+	 * @param oldValue
+	 * @param newValue
+	 */
+	void courseMoved(int course, int oldValue, int newValue) {
+		markDirtyWithConstraints(course);
+		updateSemesterDay(this.schedule.getSemesterDayIndex(oldValue));
+		updateSemesterDay(this.schedule.getSemesterDayIndex(newValue));
+	}
+
+	/**
+	 * Updates the deltas changed by increasing the weights of a course's conflicts.
+	 * @param course index
+	 */
+	void weightsIncreased(int course) {
+		markDirtyWithConstraints(course);
+		updateSemesterDay(this.schedule.getSemesterDayIndex(this.schedule.getCourseValue(course)));
+	}
+
+	/**
+	 * Returns the course of the best move of the schedule, the move with the lowest delta, ties chosen at random.
+	 * A tabu course, or a course whose best value is tabu, is skipped
+	 * unless its move would beat the fewest conflicts found.
+	 * @param tabu
+	 * @param minConflictsFound
+	 * @return course index, -1 if no course has a move
+	 */
+	int bestCourse(TabuList tabu, int minConflictsFound) {
+		refresh();
+		int bestCourse = -1;
+		int bestDelta = Integer.MAX_VALUE;
+		int bestCount = 0;
+		for(int i = 0; i < this.rowBest.length; i++) {
+			int j = this.rowBest[i];
+			if(j == -1) {
+				continue;
+			}
+			int delta = this.deltas[i][j];
+			if(delta > bestDelta) {
+				continue;
+			}
+			if((tabu.isCourseTabu(i) || tabu.isMoveTabu(i, j)) && !isAspiration(i, j, delta, minConflictsFound)) {
+				continue;
+			}
+			if(delta < bestDelta) {
+				bestCourse = i;
+				bestDelta = delta;
+				bestCount = 1;
+			}
+			else if(this.random.nextInt(++bestCount) == 0) {
+				bestCourse = i;
+			}
+		}
+		return bestCourse;
+	}
+
+	/**
+	 * Returns true if moving a course to a value would beat the fewest conflicts found.
+	 * @param course
+	 * @param domainIndex
+	 * @param delta cached delta of the move
+	 * @param minConflictsFound
+	 * @return
+	 */
+	private boolean isAspiration(int course, int domainIndex, int delta, int minConflictsFound) {
+		int conflictDelta = this.weights == null ? delta
+				: this.schedule.calculateConflictDelta(course, this.model.getValues(course)[domainIndex]);
+		return this.schedule.getTotalConflicts() + conflictDelta < minConflictsFound;
+	}
+
+	/**
+	 * Returns the domain index of the best value of a course, from the last bestCourse().
+	 * @param course
+	 * @return -1 if the course has no other value
+	 */
+	int getBestValueIndex(int course) {
+		return this.rowBest[course];
+	}
+	int getDelta(int course, int domainIndex) {
+		return this.deltas[course][domainIndex];
+	}
+	/**
+	 * Returns the number of deltas calculated since this table was created.
+	 * @return
+	 */
+	long getEvaluations() {
+		return this.evaluations;
+	}
+
+	/**
+	 * Marks the row of a course, and of every course sharing a constraint with it, to be recalculated.
+	 * @param course
+	 */
+	private void markDirtyWithConstraints(int course) {
+		markDirty(course);
+		int[] courseConstraints = this.constraints.getCourseConstraints(course);
+		for(int i = 0; i < courseConstraints.length; i++) {
+			int index = courseConstraints[i];
+			int other = this.constraints.course1(index) == course ? this.constraints.course2(index) : this.constraints.course1(index);
+			markDirty(other);
+		}
+	}
+
+	private void markDirty(int course) {
+		if(!this.dirty[course]) {
+			this.dirty[course] = true;
+			this.dirtyCourses[this.dirtyCount++] = course;
+		}
+	}
+
+	/**
+	 * Updates the deltas of the values on a day of a semester whose number of courses changed.
+	 * A course on that day has its whole row marked, others have their value on that day recalculated.
+	 * @param semesterDay
+	 */
+	private void updateSemesterDay(int semesterDay) {
+		int[] courses = this.model.getSemesterDayCourses(semesterDay);
+		int[] domainIndexes = this.model.getSemesterDayValues(semesterDay);
+		for(int k = 0; k < courses.length; k++) {
+			int course = courses[k];
+			if(this.dirty[course]) {
+				continue;
+			}
+			int j = domainIndexes[k];
+			if(this.schedule.getCourseValue(course) == this.model.getValues(course)[j]) {
+				markDirty(course);
+			}
+			else {
+				updateEntry(course, j);
+			}
+		}
+	}
+
+	/**
+	 * Recalculates one delta, keeping the lowest delta of its row.
+	 * @param course
+	 * @param j domain index, not the current value of the course
+	 */
+	private void updateEntry(int course, int j) {
+		int old = this.deltas[course][j];
+		int delta = calculateDelta(course, this.model.getValues(course)[j]);
+		this.deltas[course][j] = delta;
+		int best = this.rowBest[course];
+		if(best == j) {
+			if(delta > old) {
+				scanRow(course);
+			}
+		}
+		else if(best == -1 || delta < this.deltas[course][best]) {
+			this.rowBest[course] = j;
+		}
+	}
+
+	/**
+	 * Recalculates every marked row.
+	 */
+	private void refresh() {
+		for(int i = 0; i < this.dirtyCount; i++) {
+			int course = this.dirtyCourses[i];
+			int[] values = this.model.getValues(course);
+			int current = this.schedule.getCourseValue(course);
+			int[] row = this.deltas[course];
+			for(int j = 0; j < values.length; j++) {
+				row[j] = values[j] == current ? 0 : calculateDelta(course, values[j]);
+			}
+			scanRow(course);
+			this.dirty[course] = false;
+		}
+		this.dirtyCount = 0;
+	}
+
+	/**
+	 * Finds the lowest delta of a row, other than the current value, ties chosen at random.
+	 * @param course
+	 */
+	private void scanRow(int course) {
+		int[] values = this.model.getValues(course);
+		int current = this.schedule.getCourseValue(course);
+		int[] row = this.deltas[course];
+		int best = -1;
+		int bestCount = 0;
+		for(int j = 0; j < row.length; j++) {
+			if(values[j] == current) {
+				continue;
+			}
+			if(best == -1 || row[j] < row[best]) {
+				best = j;
+				bestCount = 1;
+			}
+			else if(row[j] == row[best] && this.random.nextInt(++bestCount) == 0) {
+				best = j;
+			}
+		}
+		this.rowBest[course] = best;
+	}
+
+	private int calculateDelta(int course, int value) {
+		this.evaluations++;
+		return this.weights == null
+				? this.schedule.calculateConflictDelta(course, value)
+				: this.schedule.calculateWeightedConflictDelta(course, value, this.weights);
+	}
+}
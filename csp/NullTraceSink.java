@@ -0,0 +1,26 @@
+package csp;
+
+/**
+ * Trace sink used when tracing is off.
+ * Discards every schedule without converting it to a String.
+ */
+public class NullTraceSink implements TraceSink {
+
+	@Override
+	public boolean isEnabled() {
+		return false;
+	}
+
+	@Override
+	public void record(Schedule schedule) {
+	}
+
+	@Override
+	public String getTrace() {
+		return "";
+	}
+
+	@Override
+	public void close() {
+	}
+}
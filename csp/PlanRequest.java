@@ -0,0 +1,57 @@
+package csp;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One student's request for a schedule of a shared ScheduleModel.
+ *
+ * 	completed courses: already taken, not scheduled, and their constraints are ignored.
+ * 	fixed courses: must be scheduled at the given value (semesterID*10 + Day).
+ * 	excluded semesters: no course can be scheduled in these semester IDs.
+ *
+ * Not changed after it is created.
+ */
+public class PlanRequest {
+	private final String studentID;
+	private final Set<String> completedCourses;
+	private final Map<String, Integer> fixedCourses;
+	private final Set<Integer> excludedSemesters;
+
+	/**
+	 * @param studentID returned with the result of the request
+	 * @param completedCourses names of courses already taken
+	 * @param fixedCourses course name  |  value the course must be scheduled at
+	 * @param excludedSemesters semester IDs no course can be scheduled in
+	 */
+	PlanRequest(String studentID, Set<String> completedCourses,
+			Map<String, Integer> fixedCourses, Set<Integer> excludedSemesters){
+		this.studentID = studentID;
+		this.completedCourses = Collections.unmodifiableSet(new HashSet<>(completedCourses));
+		this.fixedCourses = Collections.unmodifiableMap(new HashMap<>(fixedCourses));
+		this.excludedSemesters = Collections.unmodifiableSet(new HashSet<>(excludedSemesters));
+	}
+
+	/**
+	 * Creates a request for every course of the catalog, with no restrictions.
+	 * @param studentID
+	 */
+	PlanRequest(String studentID){
+		this(studentID, Collections.emptySet(), Collections.emptyMap(), Collections.emptySet());
+	}
+
+	public String getStudentID() {
+		return this.studentID;
+	}
+	public Set<String> getCompletedCourses() {
+		return this.completedCourses;
+	}
+	public Map<String, Integer> getFixedCourses() {
+		return this.fixedCourses;
+	}
+	public Set<Integer> getExcludedSemesters() {
+		return this.excludedSemesters;
+	}
+}
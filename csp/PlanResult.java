@@ -0,0 +1,82 @@
+package csp;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The result of one PlanRequest.
+ * If the status is SOLVED, holds the value (semesterID*10 + Day) of every course scheduled,
+ * otherwise holds no values.
+ *
+ * Not changed after it is created.
+ */
+public class PlanResult {
+	private final PlanRequest request;
+	private final BacktrackingSolver.Status status;
+	private final Map<String, Integer> courseValues;
+	private final long nodeCount;
+	private final long elapsedMillis;
+
+	/**
+	 * @param request
+	 * @param status
+	 * @param courseValues course name  |  value, empty unless solved
+	 * @param nodeCount assignments tried by the search
+	 * @param elapsedMillis
+	 */
+	PlanResult(PlanRequest request, BacktrackingSolver.Status status,
+			Map<String, Integer> courseValues, long nodeCount, long elapsedMillis){
+		this.request = request;
+		this.status = status;
+		this.courseValues = Collections.unmodifiableMap(courseValues);
+		this.nodeCount = nodeCount;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public PlanRequest getRequest() {
+		return this.request;
+	}
+	public String getStudentID() {
+		return this.request.getStudentID();
+	}
+	public BacktrackingSolver.Status getStatus() {
+		return this.status;
+	}
+	public boolean isSolved() {
+		return this.status == BacktrackingSolver.Status.SOLVED;
+	}
+	/**
+	 * Returns the value of every course scheduled, empty unless solved.
+	 * @return course name  |  value
+	 */
+	public Map<String, Integer> getCourseValues() {
+		return this.courseValues;
+	}
+	public long getNodeCount() {
+		return this.nodeCount;
+	}
+	public long getElapsedMillis() {
+		return this.elapsedMillis;
+	}
+
+	/**
+	 * Returns the student ID and status, then each semester ID & its courses on one line,
+	 * in the same format as Schedule.toString().
+	 */
+	public String toString() {
+		String s = this.request.getStudentID() + ": " + this.status + "\n";
+
+		// semester ID  |  courses in that semester
+		Map<Integer, StringBuilder> semesters = new TreeMap<>();
+		for(Map.Entry<String, Integer> entry : this.courseValues.entrySet()) {
+			int value = entry.getValue();
+			semesters.computeIfAbsent(value / 10, semester -> new StringBuilder())
+				.append('\t').append(entry.getKey()).append('-').append(Day.values()[value % 10]);
+		}
+		StringBuilder lines = new StringBuilder(s);
+		for(Map.Entry<Integer, StringBuilder> entry : semesters.entrySet()) {
+			lines.append(entry.getKey()).append(':').append(entry.getValue()).append('\n');
+		}
+		return lines.toString();
+	}
+}
@@ -0,0 +1,56 @@
+package csp;
+
+/**
+ * Keeps the last K recorded schedules in memory,
+ * replacing the oldest schedule once full.
+ */
+public class RingBufferTraceSink implements TraceSink {
+	private String[] schedules;
+	private int next;		// index the next schedule is stored at
+	private boolean full;
+
+	/**
+	 * @param capacity number of most recent schedules kept.
+	 */
+	RingBufferTraceSink(int capacity){
+		if(capacity < 1) {
+			throw new IllegalArgumentException("Ring buffer capacity must be at least 1: " + capacity);
+		}
+		this.schedules = new String[capacity];
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return true;
+	}
+
+	@Override
+	public void record(Schedule schedule) {
+		String s = schedule.toString() + "\n";
+		synchronized(this) {
+			this.schedules[this.next] = s;
+			this.next = (this.next + 1) % this.schedules.length;
+			if(this.next == 0) {
+				this.full = true;
+			}
+		}
+	}
+
+	/**
+	 * Returns the kept schedules, oldest first.
+	 */
+	@Override
+	public synchronized String getTrace() {
+		StringBuilder sb = new StringBuilder();
+		int start = this.full ? this.next : 0;
+		int size = this.full ? this.schedules.length : this.next;
+		for(int i = 0; i < size; i++) {
+			sb.append(this.schedules[(start + i) % this.schedules.length]);
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public void close() {
+	}
+}
@@ -0,0 +1,47 @@
+package csp;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Passes every Nth recorded schedule on to another trace sink,
+ * discarding the rest.
+ * Use with RingBufferTraceSink or AsyncFileTraceSink to choose where samples are kept.
+ */
+public class SampledTraceSink implements TraceSink {
+	private TraceSink sink;
+	private int interval;
+	private AtomicLong recordCount = new AtomicLong();
+
+	/**
+	 * @param sink receives the sampled schedules.
+	 * @param interval number of schedules recorded per sample kept.
+	 */
+	SampledTraceSink(TraceSink sink, int interval){
+		if(interval < 1) {
+			throw new IllegalArgumentException("Sample interval must be at least 1: " + interval);
+		}
+		this.sink = sink;
+		this.interval = interval;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return this.sink.isEnabled();
+	}
+
+	@Override
+	public void record(Schedule schedule) {
+		if(this.recordCount.getAndIncrement() % this.interval == 0) {
+			this.sink.record(schedule);
+		}
+	}
+
+	@Override
+	public String getTrace() {
+		return this.sink.getTrace();
+	}
+
+	@Override
+	public void close() {
+		this.sink.close();
+	}
+}
@@ -1,199 +1,177 @@
 package csp;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
-/** 
+/**
  * The primary tracking class of course values.
  * Calculates and tracks conflicts for each course as well as total conflicts for schedule.
- * 
- * A semester is mapped to a list which contains it's assigned courses.
- * Each course is mapped to the list it has the value of.
- * 
- * An instantiation represents one schedule.
- * A deep copy of a schedule is made by sending the constructor the map of course value 
  *
+ * Values and conflicts are kept in int arrays indexed by the course's index in the CourseList.
+ * Each semester tracks how many of its courses are on each day.
+ * Same-day conflicts are kept up to date from these counts whenever a course value is set,
+ * constraint conflicts are calculated by calculateAllViolations() or applyCourseMove().
+ * Conflicts of each course are kept in a max heap to select the course with most conflicts.
+ *
+ * An instantiation represents one schedule of a ScheduleModel.
+ * A deep copy of a schedule is made by sending the constructor the map of course value,
+ * or the schedule itself to also copy its conflicts.
+ *
+ * A schedule must only be used by one thread at a time.
+ * Schedules of the same model can be used by different threads at once.
  */
 public class Schedule {
-	
-	// static variables
-	private static ConstraintList constraintList;
-	private static SemesterList semesterList;
-	private static CourseList courseList;
-	private static int scheduleCount = 0;
-
-	// scheduleMain is the primary schedule container, each semesters entry is formated:   
-	// semesterName  |  semesterID  |  courseID  | day 
-	// note first two entries of each semesters list are the semester name & semester ID.
-	private List<ArrayList<String>> scheduleMain;  
-
-	private int scheduleID; // assigned by scheduleCount 
-	private int totalConflicts;
-	private String courseWithMostConflicts;
-
-	// maps to reduce iteration workloads
-	private Map<String, Integer> mapCourseNameToValue; // Course Value is the SemesterID+dayValue
-	private Map<String, ArrayList<String>> mapCourseNameToScheduleList; // CourseName  |  schedule index containing
-	private Map<String, Integer> mapCourseNameToConflicts;
-	private Map<ArrayList<String>, String> mapScheduleEntryToSemesterName;
-	private Map<Integer, ArrayList<String>> mapSemesterIndexToScheduleEntry;
-	private Map<String, ArrayList<String>> mapSemesterNameToScheduleEntry;
-		
+
+	private static final AtomicInteger scheduleCount = new AtomicInteger();
+	private static final int DAYS = Day.values().length;
+
+	// shared by every schedule of the model, never changed
+	private final ScheduleModel model;
+	private final ConstraintList constraintList;
+	private final CompiledConstraintList constraints;
+	private final SemesterList semesterList;
+	private final CourseList courseList;
+
+	// course index  |  course value, a value of 0 means the course is not assigned.
+	// Course Value is the SemesterID+dayValue
+	private int[] courseValues;
+	// course index  |  constraint conflicts of the course
+	private int[] constraintConflicts;
+	// semester index * DAYS + day ordinal  |  number of courses on that day of the semester
+	private int[] semesterDayCounts;
+	// semester index * DAYS + day ordinal  |  first course on that day of the semester, -1 for none
+	// courses on the same day are linked by nextSameDay & previousSameDay, -1 ends the list
+	private int[] semesterDayFirstCourse;
+	private int[] nextSameDay;
+	private int[] previousSameDay;
+	// course index  |  constraint and same-day conflicts of the course
+	private IndexedMaxHeap conflictHeap;
+
+	private int scheduleID; // assigned by scheduleCount
+	private int totalConstraintConflicts;
+	private int totalSameDayConflicts;
+
 	/**
 	 * Use this constructor to make a deep copy of a different schedule.
 	 * Send this constructor the value map of the schedule to copy.
+	 * @param model
 	 * @param inputCourseValueMap
 	 */
-	Schedule(Map<String, Integer> inputCourseValueMap){
-		scheduleCount++;
-		
-		//initialize basic variables
-		this.scheduleID = scheduleCount;
-		this.scheduleMain = new ArrayList<>();
-		this.totalConflicts = 0;
-		this.mapCourseNameToScheduleList = new HashMap<>();
-		this.mapSemesterNameToScheduleEntry = new HashMap<>();
-		this.mapSemesterIndexToScheduleEntry = new HashMap<>();
-		this.mapScheduleEntryToSemesterName = new HashMap<>();
-		
-		// call methods to set values for primary schedule & maps
-		initializeScheduleMain();
-		copyInputValueMaps(inputCourseValueMap);
-		initializeCourseMap();
-
-		// set course with most conflicts to arbitrary starting course
-		this.courseWithMostConflicts = courseList.get(0).getName();
+	Schedule(ScheduleModel model, Map<String, Integer> inputCourseValueMap){
+		this(model);
+		copyInputValueMap(inputCourseValueMap);
 	}
-	
+
 	/**
-	 * From a valueMap, creates:
-	 * mapCourseNameToValue
-	 * mapCourseNameToScheduleList
+	 * From a valueMap, sets the value of every course.
 	 * @param inputMap
 	 */
-	private void copyInputValueMaps(Map<String, Integer> inputMap) {
-					
-			// initialize courseValueMap
-			this.mapCourseNameToValue = new HashMap<>();
-			this.mapCourseNameToScheduleList = new HashMap<>();
-			
-			// set the values for the maps
-			for(int i = 0; i < courseList.size(); i++) {
-				
-				// set variables to be added
-				String courseNameLoop = courseList.get(i).getName();
-				int courseVal = inputMap.get(courseNameLoop);
-				Day d = Day.values()[courseVal % 10]; // extract the day from the course value
-				int semID = courseVal / 10; // remove the day value from the end of course value
-				Semester semLoop = semesterList.getSemesterByID(semID);
-				ArrayList<String> semesterCoursesLoop = 
-						this.mapSemesterNameToScheduleEntry.get(semLoop.getName());
-				
-				// add variables
-				this.mapCourseNameToScheduleList.put(courseNameLoop, semesterCoursesLoop);
-				this.mapCourseNameToValue.put(courseNameLoop, courseVal);
-				semesterCoursesLoop.add(courseNameLoop);
-				semesterCoursesLoop.add(d.toString());
-			}
+	private void copyInputValueMap(Map<String, Integer> inputMap) {
+		for(int i = 0; i < courseList.size(); i++) {
+			int courseVal = inputMap.get(courseList.get(i).getName());
+			setCourseValueComplete(i, courseVal);
+		}
 	}
 
 	/**
-	 * Constructor for initial schedule.
-	 * @param s
-	 * @param cl
-	 * @param courseListIn
+	 * Use this constructor to make a deep copy of a different schedule,
+	 * including its current conflict counts.
+	 * Avoids recalculating violations for a copy of an already calculated schedule.
+	 * @param other
 	 */
-	Schedule(SemesterList s, ConstraintList cl, CourseList courseListIn){
-		scheduleCount++;
-		
-		//imported data lists
-		semesterList = s;
-		constraintList = cl;
-		courseList = new CourseList();
-		courseList = courseListIn;
-		
-		this.scheduleID = scheduleCount;
-		this.scheduleMain = new ArrayList<>();
-		this.totalConflicts = 0;
-		
-		//instantiate maps
-		this.mapCourseNameToValue = new HashMap<>();
-		this.mapCourseNameToScheduleList = new HashMap<>();
-		this.mapSemesterNameToScheduleEntry = new HashMap<>();
-		this.mapSemesterIndexToScheduleEntry = new HashMap<>();
-		this.mapScheduleEntryToSemesterName = new HashMap<>();
-		
+	Schedule(Schedule other){
+		this.model = other.model;
+		this.constraintList = other.constraintList;
+		this.constraints = other.constraints;
+		this.semesterList = other.semesterList;
+		this.courseList = other.courseList;
+		this.scheduleID = scheduleCount.incrementAndGet();
+		this.courseValues = other.courseValues.clone();
+		this.constraintConflicts = other.constraintConflicts.clone();
+		this.semesterDayCounts = other.semesterDayCounts.clone();
+		this.semesterDayFirstCourse = other.semesterDayFirstCourse.clone();
+		this.nextSameDay = other.nextSameDay.clone();
+		this.previousSameDay = other.previousSameDay.clone();
+		this.conflictHeap = new IndexedMaxHeap(other.conflictHeap);
+		this.totalConstraintConflicts = other.totalConstraintConflicts;
+		this.totalSameDayConflicts = other.totalSameDayConflicts;
+	}
+
+	/**
+	 * Constructor for initial schedule, with no course values.
+	 * @param model
+	 */
+	Schedule(ScheduleModel model){
+		this.model = model;
+		this.constraintList = model.getConstraintList();
+		this.constraints = model.getConstraints();
+		this.semesterList = model.getSemesterList();
+		this.courseList = model.getCourseList();
+
+		this.scheduleID = scheduleCount.incrementAndGet();
+		this.totalConstraintConflicts = 0;
+		this.constraintConflicts = new int[this.courseList.size()];
+
 		//call initialization methods
 		initializeScheduleMain();
-		initializeCourseMap();
-		
-		// set course with most conflicts to arbitrary starting course
-		Course courseToCompare = courseList.get(0);
-		String courseNameToCompare = courseToCompare.getName();
-		this.courseWithMostConflicts = courseNameToCompare;
+		this.conflictHeap = new IndexedMaxHeap(this.courseList.size());
 	}
 
 	/**
-	 * Replaces the previous scheduleMain with one with no values for each semester in it.
-	 * Sets mapping values for new schedule
-	 * @param sL
+	 * Constructor for initial schedule of input lists with no model.
+	 * Creates a new model of the lists, use Schedule(ScheduleModel) to share one.
+	 * @param s
+	 * @param cl
+	 * @param courseListIn
 	 */
-	public void initializeScheduleMain() {
-		this.scheduleMain = new ArrayList<>();
-		
-		// Create each semester's starting entry in scheduleMain
-		for(int i = 0; i < semesterList.numberOfSemesters(); i++) {
-			ArrayList<String> list = new ArrayList<>();
-			Integer semesterID = semesterList.getSemesterID(i);
-			String semesterName = semesterList.getSemesterName(semesterID);
-			list.add(semesterName);
-			list.add(String.valueOf(semesterID));
-			this.scheduleMain.add(i, list);
-			
-			// set the map values to the scheduleMain entries
-			this.mapSemesterNameToScheduleEntry.put(semesterName, this.scheduleMain.get(i));
-			this.mapSemesterIndexToScheduleEntry.put(i, this.scheduleMain.get(i));
-			this.mapScheduleEntryToSemesterName.put(list, semesterName);
-		}
+	Schedule(SemesterList s, ConstraintList cl, CourseList courseListIn){
+		this(new ScheduleModel(cl, courseListIn, s));
 	}
 
 	/**
-	 * called when a new schedule is created to set starting values of zero
-	 * to the course conflict tracking map. 
-	 * Schedule's addConflict() method assumes that all courses are mapped, 
-	 * and does not check to reduced workload of that method.
+	 * Removes the values of every course, leaving each semester with no courses in it.
+	 * Clears the arrays of a schedule that already has them, so a random restart allocates nothing.
 	 */
-	private void initializeCourseMap() {
-		this.mapCourseNameToConflicts = new HashMap<>();
-		for (int i = 0; i < courseList.size(); i++) {
-			String name = courseList.get(i).getName();
-			this.mapCourseNameToConflicts.put(name, 0);
+	public void initializeScheduleMain() {
+		if(this.courseValues == null) {
+			this.courseValues = new int[courseList.size()];
+			this.semesterDayCounts = new int[semesterList.numberOfSemesters() * DAYS];
+			this.semesterDayFirstCourse = new int[semesterList.numberOfSemesters() * DAYS];
+			this.nextSameDay = new int[courseList.size()];
+			this.previousSameDay = new int[courseList.size()];
+		}
+		else {
+			Arrays.fill(this.courseValues, 0);
+			Arrays.fill(this.semesterDayCounts, 0);
 		}
+		// nextSameDay & previousSameDay are set as each course is linked to a day
+		Arrays.fill(this.semesterDayFirstCourse, -1);
+		this.totalSameDayConflicts = 0;
 	}
+
 	/**
 	 * Creates a random starting schedule.
 	 * Can be used for a random restart.
 	 * This needs to be run for a new schedule.
+	 * @param r random stream of the search, the same stream gives the same schedule
 	 */
-	public void createRandomSchedule(){
-		scheduleCount++;
+	public void createRandomSchedule(SplittableRandom r){
+		scheduleCount.incrementAndGet();
 		initializeScheduleMain();
-	    Random r = new Random();
-	    // r.setSeed( 129 );
-	    
-	    for ( int courseCount = 0; courseCount < 30; courseCount++ ) {
+
+	    for ( int courseCount = 0; courseCount < courseList.size(); courseCount++ ) {
 	    	// get this iterations course & domain size
 	        Course course = courseList.get(courseCount);
 	    	int domainSize = course.getDomainSize();
-	    	
+
 	        // get a random value for the course from its domain
 	        int randomCourseValue = r.nextInt( domainSize );
 	        int value = course.getDomainEntry(randomCourseValue);
-	        
+
 	        // assign that value to this schedule
-	        setCourseValueComplete(course.getName(), value);
+	        setCourseValueComplete(courseCount, value);
 	    }
 	}
 
@@ -201,143 +179,415 @@ public class Schedule {
 	 * calculate all constraint violations
 	 */
 	public void calculateAllViolations() {
-		//int course1;
-		//int course2;
-		String courseName1;
-		String courseName2;
-		String opString;
+		int course1;
+		int course2;
 		int course1Semester;
 		int course2Semester;
-		//int countNotViolated; // counts number of non-violations to assign to schedule
-		
+
 		//remove previous counts
 		clearConflicts();
-		
-		for(int i = 0; i < constraintList.size(); i++) {
-			
-			// Get course names from current constraint line
-			courseName1 = constraintList.courseName1(i);
-			courseName2 = constraintList.courseName2(i);
-			
+
+		for(int i = 0; i < constraints.size(); i++) {
+
+			// Get courses from current constraint
+			course1 = constraints.course1(i);
+			course2 = constraints.course2(i);
+
 			// Get course values of schedule to compare for constraint i
-			// Note that courseValue needs last character removed to compare semesters
+			// Note that courseValue needs last digit removed to compare semesters
 			//    and not compare semester + day
-			course1Semester = getCourseValue(courseName1) / 10;
-			course2Semester = getCourseValue(courseName2) / 10;
-			
-			// Get operator from constraint list:
-			opString = constraintList.op(i);
-			
-			// convert opString to to operation
-			if(opString.equals("<")){
-				
-				// compare the values assigned to the courses by the schedule
-				if(course1Semester >= course2Semester) {
-					addConflict(courseName1);
-					addConflict(courseName2);
-				}
-			}
-			if(opString.equals("<=")) {
-				if(course1Semester > course2Semester) {
-					addConflict(courseName1);
-					addConflict(courseName2);
-				}
+			course1Semester = this.courseValues[course1] / 10;
+			course2Semester = this.courseValues[course2] / 10;
+
+			if(constraints.isViolated(i, course1Semester, course2Semester)) {
+				addConflict(course1);
+				addConflict(course2);
 			}
 		}
 		calculateSameDayViolations();
+		
+		// order all courses by conflicts
+		for(int i = 0; i < this.courseValues.length; i++) {
+			this.conflictHeap.setKeyUnordered(i, getCourseConflicts(i));
+		}
+		this.conflictHeap.heapify();
 	}
-	
-	/** 
-	 * Iterates through each semester, checking if any courses on same day.
+
+	/**
+	 * Recounts same-day conflicts from each semester's day counts.
+	 * Each course has a conflict for every other course on the same day of its semester.
+	 * Same-day conflicts are already kept up to date as course values are set,
+	 * so this is only needed to check them.
 	 */
 	public void calculateSameDayViolations() {
-		for(int i = 0; i < this.scheduleMain.size(); i++) {
-			List<String> semesterClassList = this.scheduleMain.get(i);
-			
-			// course days are on odd indexes for course at previous index.
-			for(int j = 3; j < semesterClassList.size(); j=j+2) {
-				for(int k = j+2; k < semesterClassList.size(); k=k+2) {
-					if(semesterClassList.get(j).equals(semesterClassList.get(k))) {
-						
-						// add a conflict for each course on the same day.
-						addConflict(semesterClassList.get(j-1));
-						addConflict(semesterClassList.get(k-1));
-					}
-				}
-			}
+		this.totalSameDayConflicts = 0;
+		for(int i = 0; i < this.semesterDayCounts.length; i++) {
+			int count = this.semesterDayCounts[i];
+			this.totalSameDayConflicts += count * (count - 1);
 		}
 	}
 	/**
-	 * increases the conflict count for an input course by name
+	 * increases the constraint conflict count for an input course by name
 	 * @param courseName
 	 */
 	public void addConflict(String courseName) {
-		this.totalConflicts++;
-		int conflicts = this.mapCourseNameToConflicts.get(courseName);
-		conflicts++;
-		this.mapCourseNameToConflicts.put(courseName, conflicts);
-		
-		// update highest conflict course
-		if(conflicts > this.mapCourseNameToConflicts.get(this.courseWithMostConflicts)) {
-			this.courseWithMostConflicts = courseName;
-		}
+		addConflict(courseList.getCourseIndex(courseName));
+	}
+
+	/**
+	 * increases the constraint conflict count for an input course by index
+	 * @param course index
+	 */
+	private void addConflict(int course) {
+		this.totalConstraintConflicts++;
+		this.constraintConflicts[course]++;
+	}
+
+	/**
+	 * Changes the constraint conflict count of an input course by amount,
+	 * as well as the total conflicts of the schedule and the conflict heap.
+	 * @param course index
+	 * @param amount
+	 */
+	private void adjustConflicts(int course, int amount) {
+		this.totalConstraintConflicts += amount;
+		this.constraintConflicts[course] += amount;
+		this.conflictHeap.update(course, getCourseConflicts(course));
 	}
 	
 	/**
-	 * Removes current conflicts.
+	 * Updates the conflict heap for every course on a day of a semester,
+	 * after the number of courses on that day changed.
+	 * @param semesterDayIndex
+	 */
+	private void updateSameDayConflicts(int semesterDayIndex) {
+		int course = this.semesterDayFirstCourse[semesterDayIndex];
+		while(course != -1) {
+			this.conflictHeap.update(course, getCourseConflicts(course));
+			course = this.nextSameDay[course];
+		}
+	}
+
+	/**
+	 * Returns the constraint and same-day conflicts of a course by name.
+	 * @param courseName
+	 * @return
+	 */
+	public int getCourseConflicts(String courseName) {
+		return getCourseConflicts(courseList.getCourseIndex(courseName));
+	}
+
+	/**
+	 * Returns the constraint and same-day conflicts of a course.
+	 * @param course index
+	 * @return
+	 */
+	int getCourseConflicts(int course) {
+		if(this.courseValues[course] == 0) {
+			return this.constraintConflicts[course];
+		}
+		int sameDayCourses = this.semesterDayCounts[getSemesterDayIndex(this.courseValues[course])] - 1;
+		return this.constraintConflicts[course] + sameDayCourses;
+	}
+
+	/**
+	 * Returns true if the constraint at index is violated,
+	 * when the course has the value movedValue and all other courses keep their value.
+	 * @param index of the constraint
+	 * @param course index of the course being moved
+	 * @param movedValue value of the course being moved
+	 * @return
+	 */
+	private boolean isViolatedWithValue(int index, int course, int movedValue) {
+		int course1 = constraints.course1(index);
+		int course2 = constraints.course2(index);
+		int course1Semester = (course1 == course ? movedValue : this.courseValues[course1]) / 10;
+		int course2Semester = (course2 == course ? movedValue : this.courseValues[course2]) / 10;
+		return constraints.isViolated(index, course1Semester, course2Semester);
+	}
+
+	/**
+	 * Returns the number of other courses on the same semester and day as value.
+	 * @param course index of the course to exclude from the count
+	 * @param value semesterID+day
+	 * @return
+	 */
+	private int countSameDayCourses(int course, int value) {
+		int count = this.semesterDayCounts[getSemesterDayIndex(value)];
+		if(this.courseValues[course] == value) {
+			count--;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the change in total conflicts if the named course were moved to newValue.
+	 * Only checks the constraints of the course and the courses of its old and new semester,
+	 * the schedule itself is not changed.
+	 * Assumes that calculateAllViolations() has been run for this schedule.
+	 * @param courseName
+	 * @param newValue The semester ID+Day
+	 * @return negative if the move removes conflicts, positive if it adds them.
+	 */
+	public int calculateConflictDelta(String courseName, int newValue) {
+		return calculateConflictDelta(courseList.getCourseIndex(courseName), newValue);
+	}
+
+	/**
+	 * Returns the change in total conflicts if a course were moved to newValue.
+	 * @param course index
+	 * @param newValue The semester ID+Day
+	 * @return
+	 */
+	int calculateConflictDelta(int course, int newValue) {
+		int oldValue = this.courseValues[course];
+		if(oldValue == newValue) {
+			return 0;
+		}
+		int delta = 0;
+
+		// each violated constraint is a conflict for both of its courses
+		int[] courseConstraints = constraints.getCourseConstraints(course);
+		for(int i = 0; i < courseConstraints.length; i++) {
+			int index = courseConstraints[i];
+			boolean violatedBefore = isViolatedWithValue(index, course, oldValue);
+			boolean violatedAfter = isViolatedWithValue(index, course, newValue);
+			if(violatedBefore && !violatedAfter) {
+				delta -= 2;
+			}
+			if(!violatedBefore && violatedAfter) {
+				delta += 2;
+			}
+		}
+
+		// each same day pair is a conflict for both of its courses
+		delta -= 2 * countSameDayCourses(course, oldValue);
+		delta += 2 * countSameDayCourses(course, newValue);
+		return delta;
+	}
+
+	/**
+	 * Returns the change in weighted conflicts if the named course were moved to newValue:
+	 * the change calculateConflictDelta() returns, with each conflict counted as many times as the weight
+	 * of its constraint, or of its day for same-day conflicts.
+	 * The schedule itself is not changed.
+	 * Assumes that calculateAllViolations() has been run for this schedule.
+	 * @param courseName
+	 * @param newValue The semester ID+Day
+	 * @param weights
+	 * @return negative if the move removes weighted conflicts, positive if it adds them.
+	 */
+	public int calculateWeightedConflictDelta(String courseName, int newValue, ConstraintWeights weights) {
+		return calculateWeightedConflictDelta(courseList.getCourseIndex(courseName), newValue, weights);
+	}
+
+	/**
+	 * Returns the change in weighted conflicts if a course were moved to newValue.
+	 * @param course index
+	 * @param newValue The semester ID+Day
+	 * @param weights
+	 * @return
+	 */
+	int calculateWeightedConflictDelta(int course, int newValue, ConstraintWeights weights) {
+		int oldValue = this.courseValues[course];
+		if(oldValue == newValue) {
+			return 0;
+		}
+		int delta = 0;
+
+		int[] courseConstraints = constraints.getCourseConstraints(course);
+		for(int i = 0; i < courseConstraints.length; i++) {
+			int index = courseConstraints[i];
+			boolean violatedBefore = isViolatedWithValue(index, course, oldValue);
+			boolean violatedAfter = isViolatedWithValue(index, course, newValue);
+			if(violatedBefore != violatedAfter) {
+				delta += (violatedAfter ? 2 : -2) * weights.constraintWeight(index);
+			}
+		}
+
+		delta -= 2 * countSameDayCourses(course, oldValue) * weights.semesterDayWeight(getSemesterDayIndex(oldValue));
+		delta += 2 * countSameDayCourses(course, newValue) * weights.semesterDayWeight(getSemesterDayIndex(newValue));
+		return delta;
+	}
+
+	/**
+	 * Increases the weight of each constraint of the named course that this schedule violates,
+	 * and of the course's day if other courses share it.
+	 * @param courseName
+	 * @param weights
+	 */
+	public void increaseCourseWeights(String courseName, ConstraintWeights weights) {
+		increaseCourseWeights(courseList.getCourseIndex(courseName), weights);
+	}
+
+	/**
+	 * Increases the weights of the conflicts of a course.
+	 * @param course index
+	 * @param weights
+	 */
+	void increaseCourseWeights(int course, ConstraintWeights weights) {
+		int[] courseConstraints = constraints.getCourseConstraints(course);
+		for(int i = 0; i < courseConstraints.length; i++) {
+			int index = courseConstraints[i];
+			if(isViolatedWithValue(index, course, this.courseValues[course])) {
+				weights.increaseConstraint(index);
+			}
+		}
+		if(countSameDayCourses(course, this.courseValues[course]) > 0) {
+			weights.increaseSemesterDay(getSemesterDayIndex(this.courseValues[course]));
+		}
+	}
+
+	/**
+	 * Moves the named course to newValue,
+	 * updating total conflicts, course conflicts and the conflict heap in place
+	 * rather than recalculating all violations.
+	 * Assumes that calculateAllViolations() has been run for this schedule.
+	 * @param courseName
+	 * @param newValue The semester ID+Day
+	 */
+	public void applyCourseMove(String courseName, int newValue) {
+		applyCourseMove(courseList.getCourseIndex(courseName), newValue);
+	}
+
+	/**
+	 * Moves a course to newValue, updating conflicts in place.
+	 * @param course index
+	 * @param newValue The semester ID+Day
+	 */
+	void applyCourseMove(int course, int newValue) {
+		int oldValue = this.courseValues[course];
+		if(oldValue == newValue) {
+			return;
+		}
+
+		// update constraints whose violation changes with the move
+		int[] courseConstraints = constraints.getCourseConstraints(course);
+		for(int i = 0; i < courseConstraints.length; i++) {
+			int index = courseConstraints[i];
+			boolean violatedBefore = isViolatedWithValue(index, course, oldValue);
+			boolean violatedAfter = isViolatedWithValue(index, course, newValue);
+			if(violatedBefore != violatedAfter) {
+				int amount = violatedAfter ? 1 : -1;
+				adjustConflicts(constraints.course1(index), amount);
+				adjustConflicts(constraints.course2(index), amount);
+			}
+		}
+
+		// same-day conflicts follow the day counts
+		setCourseValueComplete(course, newValue);
+		updateSameDayConflicts(getSemesterDayIndex(oldValue));
+		updateSameDayConflicts(getSemesterDayIndex(newValue));
+	}
+
+	/**
+	 * Removes current constraint conflicts.
+	 * Same-day conflicts follow the course values, and are kept.
 	 */
 	public void clearConflicts() {
-		initializeCourseMap();
-		this.totalConflicts = 0;
+		Arrays.fill(this.constraintConflicts, 0);
+		this.totalConstraintConflicts = 0;
 	}
-	
-		/**
-	 * Checks if course has a preset value and will delete it.
-	 * Sends course value to courseValueComplete after.
+
+	/**
+	 * Sets the value of a course, replacing any value it had.
+	 * Updates same-day conflicts, but not constraint conflicts, 
+	 * calculateAllViolations() must be run after.
 	 * @param courseName
 	 * @param value The semester ID+Day
 	 */
 	public void setCourseValue(String courseName, int value) {
-		// check if the course is already assigned a value, and delete
-		if(this.mapCourseNameToScheduleList.get(courseName) != null) {
-			ArrayList<String> list = this.mapCourseNameToScheduleList.get(courseName);
-			int index = list.indexOf(courseName);
-			list.remove(index+1);
-			list.remove(index);
-		}
-		// establish the new value for the course
-		setCourseValueComplete(courseName, value);
-	} 
-	
+		setCourseValueComplete(courseList.getCourseIndex(courseName), value);
+	}
+
+	/**
+	 * Sets the value of a course by its index in the model, as setCourseValue(String, int).
+	 * @param course index
+	 * @param value The semester ID+Day
+	 */
+	void setCourseValue(int course, int value) {
+		setCourseValueComplete(course, value);
+	}
+
 	/**
 	 * Sets all required attributes for the input course value.
-	 * Used when initializing the schedule.
+	 * Moves the course between semester day counts, 
+	 * updating same-day conflicts in constant time:
+	 * a day with k courses has k*(k-1) same-day conflicts.
 	 * Course value is semesterID+day
-	 * @param courseName
-	 * @param Value
+	 * @param course index
+	 * @param value
 	 */
-	private void setCourseValueComplete(String courseName, int value) {
-		
-		int semesterId; 
-		Day day = Day.values()[value % 10];
-		semesterId = value / 10; // remove the day value from the end of course value
-		
-		Semester semester = semesterList.getSemesterByID(semesterId);
-		ArrayList<String> semesterCourses = this.mapSemesterNameToScheduleEntry.get(semester.getName());
-		
-		this.mapCourseNameToValue.put(courseName, value);
-		this.mapCourseNameToScheduleList.put(courseName, semesterCourses);
-		semesterCourses.add(courseName);
+	private void setCourseValueComplete(int course, int value) {
+		if(this.courseValues[course] != 0) {
+			int oldIndex = getSemesterDayIndex(this.courseValues[course]);
+			this.semesterDayCounts[oldIndex]--;
+			this.totalSameDayConflicts -= 2 * this.semesterDayCounts[oldIndex];
+			
+			// unlink the course from the courses of its old day
+			if(this.previousSameDay[course] == -1) {
+				this.semesterDayFirstCourse[oldIndex] = this.nextSameDay[course];
+			}
+			else {
+				this.nextSameDay[this.previousSameDay[course]] = this.nextSameDay[course];
+			}
+			if(this.nextSameDay[course] != -1) {
+				this.previousSameDay[this.nextSameDay[course]] = this.previousSameDay[course];
+			}
+		}
+		this.courseValues[course] = value;
+		int newIndex = getSemesterDayIndex(value);
+		this.totalSameDayConflicts += 2 * this.semesterDayCounts[newIndex];
+		this.semesterDayCounts[newIndex]++;
 		
-		// add the day of the course
-		semesterCourses.add(day.toString());
+		// link the course as first of the courses of its new day
+		this.previousSameDay[course] = -1;
+		this.nextSameDay[course] = this.semesterDayFirstCourse[newIndex];
+		if(this.nextSameDay[course] != -1) {
+			this.previousSameDay[this.nextSameDay[course]] = course;
+		}
+		this.semesterDayFirstCourse[newIndex] = course;
+	}
+
+	/**
+	 * Returns the index of semesterDayCounts for a course value.
+	 * @param value The semester ID+Day
+	 * @return
+	 */
+	int getSemesterDayIndex(int value) {
+		return semesterList.getSemesterIndexByID(value / 10) * DAYS + value % 10;
+	}
+	/**
+	 * returns the name of the course with most conflicts,
+	 * chosen at random between courses tied for most conflicts.
+	 * Assumes that calculateAllViolations() has been run for this schedule.
+	 * @param r random stream of the search, breaks ties
+	 * @return
+	 */
+	public String getCourseWithMostConflicts(SplittableRandom r) {
+		return courseList.get(getCourseIndexWithMostConflicts(r)).getName();
+	}
+	/**
+	 * Returns the index of the course with most conflicts, ties chosen at random.
+	 * @param r
+	 * @return
+	 */
+	int getCourseIndexWithMostConflicts(SplittableRandom r) {
+		return this.conflictHeap.maxRandomTie(r);
 	}
 	/**
-	 * returns the name of the course with most conflicts
+	 * returns the names of up to k courses with most conflicts, most conflicts first.
+	 * Assumes that calculateAllViolations() has been run for this schedule.
+	 * @param k
 	 * @return
 	 */
-	public String getCourseWithMostConflicts() {
-		return this.courseWithMostConflicts;
+	public String[] getCoursesWithMostConflicts(int k) {
+		int[] courses = this.conflictHeap.top(k);
+		String[] names = new String[courses.length];
+		for(int i = 0; i < courses.length; i++) {
+			names[i] = courseList.get(courses[i]).getName();
+		}
+		return names;
 	}
 	/**
 	 * Returns the value given to the parameter course by this schedule.
@@ -345,7 +595,7 @@ public class Schedule {
 	 * @return int of the course value.
 	 */
 	public Integer getCourseValue(Course c) {
-		return this.mapCourseNameToValue.get(c.getName());
+		return getCourseValue(c.getName());
 	}
 	/**
 	 * Returns the value given to the parameter course by this schedule.
@@ -353,14 +603,53 @@ public class Schedule {
 	 * @return int of the course value.
 	 */
 	public Integer getCourseValue(String courseName) {
-		return this.mapCourseNameToValue.get(courseName);
+		return this.courseValues[courseList.getCourseIndex(courseName)];
 	}
 	/**
-	 * Returns the map of course names to course values.
+	 * Returns the value of a course by index.
+	 * @param course index
+	 * @return semesterID+day, 0 if not assigned
+	 */
+	int getCourseValue(int course) {
+		return this.courseValues[course];
+	}
+	/**
+	 * Copies the value of every course into an array, by course index.
+	 * @param values array of at least one entry per course
+	 */
+	void copyCourseValues(int[] values) {
+		System.arraycopy(this.courseValues, 0, values, 0, this.courseValues.length);
+	}
+	/**
+	 * Replaces the value of every course, by course index, such as with values kept by copyCourseValues(),
+	 * and calculates the violations of the new values.
+	 * Reuses the arrays of the schedule, as a random restart does.
+	 * @param values semesterID+day of each course
+	 */
+	void setCourseValues(int[] values) {
+		initializeScheduleMain();
+		for(int i = 0; i < this.courseValues.length; i++) {
+			setCourseValueComplete(i, values[i]);
+		}
+		calculateAllViolations();
+	}
+	/**
+	 * Returns a new map of course names to course values.
 	 * @return
 	 */
 	public Map<String, Integer> getCourseValueMap(){
-		return this.mapCourseNameToValue;
+		Map<String, Integer> mapCourseNameToValue = new HashMap<>();
+		for(int i = 0; i < this.courseValues.length; i++) {
+			mapCourseNameToValue.put(courseList.get(i).getName(), this.courseValues[i]);
+		}
+		return mapCourseNameToValue;
+	}
+	/**
+	 * Returns the model this schedule is of.
+	 * @return
+	 */
+	public ScheduleModel getModel() {
+		return this.model;
 	}
 	/**
 	 * Returns the schedule instantiation number (ID)
@@ -373,7 +662,7 @@ public class Schedule {
 	 * Returns the semester a course is assigned in the schedule.
 	 * Assumes semester ID is an int.
 	 * @param c
-	 * @return semesterID 
+	 * @return semesterID
 	 */
 	public static int getSemesterAssignmentForCourse(Course c) {
 		String name = c.getName();
@@ -384,7 +673,7 @@ public class Schedule {
 	 * Returns the semester a course is assigned in the schedule.
 	 * Assumes semester ID is an int.
 	 * @param String courseName
-	 * @return semesterID 
+	 * @return semesterID
 	 */
 	public static int getSemesterAssignmentForCourse(String cName) {
 		String assignment = cName.substring(0, cName.length()-1);
@@ -395,7 +684,7 @@ public class Schedule {
 	 * @return
 	 */
 	public static int getTotalSchedulesMade() {
-		return scheduleCount;
+		return scheduleCount.get();
 	}
 	/**
 	 * Returns the total number of constraint conflicts this schedule has.
@@ -403,37 +692,32 @@ public class Schedule {
 	 * @return
 	 */
 	public int getTotalConflicts() {
-		return this.totalConflicts;
+		return this.totalConstraintConflicts + this.totalSameDayConflicts;
 	}
 
-	/** 
-	 * This returns an output string of the schedule in the format 
+	/**
+	 * This returns an output string of the schedule in the format
 	 * requested by assignment.
 	 */
 	public String toString() {
-		String s = "";
-		List<String> semesterCourses = new ArrayList<>();
-		//String semesterName = "";
-		Semester semester;
-		String courseName = "";
-		String day = "";
-		
-		// for each semester get each class & day, add it to next line of string
-		for(int i = 0; i < this.scheduleMain.size(); i++) {
-			semesterCourses = this.scheduleMain.get(i);
-			semester = semesterList.getSemesterByIndex(i);
-			
-			//semesterName = semester.getName();
-			s = s.concat(String.valueOf(semester.getID())+":");
-			for(int j = 2; j < semesterCourses.size(); j=j+2) {
-				courseName = semesterCourses.get(j);
-				day = semesterCourses.get(j+1);
-				s = s.concat("\t"+courseName+"-"+day);
+		// one line per semester, each course added to the line of its semester
+		StringBuilder[] lines = new StringBuilder[semesterList.numberOfSemesters()];
+		for(int i = 0; i < lines.length; i++) {
+			lines[i] = new StringBuilder().append(semesterList.getSemesterID(i)).append(':');
+		}
+		for(int j = 0; j < this.courseValues.length; j++) {
+			Semester semester = semesterList.getSemesterByID(this.courseValues[j] / 10);
+			if(semester == null) {
+				continue;
 			}
-			s = s.concat("\n");
+			lines[semester.getIndex()].append('\t').append(courseList.get(j).getName())
+				.append('-').append(Day.values()[this.courseValues[j] % 10]);
 		}
-		s.trim();
-		return s;
+		StringBuilder s = new StringBuilder();
+		for(StringBuilder line : lines) {
+			s.append(line).append('\n');
+		}
+		return s.toString();
 	}
 
 	/**
@@ -442,99 +726,83 @@ public class Schedule {
 	 * however it outputs details of the calculations for examination.
 	 */
 	public String examineConstraintListViolations() {
-		String s = "";
+		StringBuilder s = new StringBuilder();
 		String courseName1;
 		String courseName2;
 		String opString;
 		int course1Semester;
 		int course2Semester;
-		
+
 		//remove previous counts
 		clearConflicts();
-		
+
 		for(int i = 0; i < constraintList.size(); i++) {
-			
+
 			// Get course names from current constraint line
 			courseName1 = constraintList.courseName1(i);
 			courseName2 = constraintList.courseName2(i);
-			
+
 			// Get course values of schedule to compare for constraint i
 			// Note that courseValue needs last character removed to compare semesters
 			//    and not semester + day
 			course1Semester = getCourseValue(courseName1) / 10;
 			course2Semester = getCourseValue(courseName2) / 10;
-			
+
 			// Get operator from constraint list:
 			opString = constraintList.op(i);
-			
-			s = s.concat("Constraint Line Test:\n"
+
+			s.append("Constraint Line Test:\n"
 					+ "File Input : "+constraintList.line(i) + "\n"
 					+ "courseName1: " + courseName1 +" "
 					+ "course1Semester: "+ course1Semester+"\n"
-					+ "courseName2: " + courseName2 +" " 
+					+ "courseName2: " + courseName2 +" "
 					+ "course2Semester: "+ course2Semester+"\n"
 					);
-			
-			
-			// convert opString to to operation: probably call method if constraint violated, with courses violated for. 
+
+
+			// convert opString to to operation: probably call method if constraint violated, with courses violated for.
 			// or leave a boolean to run the constraint violation
 			if(opString.equals("<")){
-	
-				
+
+
 				// compare the values assigned to the courses by the schedule
 				if(course1Semester >= course2Semester) {
-					s = s.concat(course1Semester + " is greater than or equal to "
+					s.append(course1Semester + " is greater than or equal to "
 							+ course2Semester);
 					addConflict(courseName1);
 					addConflict(courseName2);
 				}
-				
+
 			}
 			if(opString.equals("<=")) {
 				if(course1Semester > course2Semester) {
-					s = s.concat(course1Semester + " is greater than "
+					s.append(course1Semester + " is greater than "
 							+ course2Semester);
 					addConflict(courseName1);
 					addConflict(courseName2);
 				}
 			}
 			if(course1Semester == course2Semester) {
-				s = s.concat(course1Semester + " is equal to "
+				s.append(course1Semester + " is equal to "
 						+ course2Semester);
 			}
 			if(course1Semester > course2Semester) {
-				s = s.concat(course1Semester + " is greater than "
+				s.append(course1Semester + " is greater than "
 						+ course2Semester);
 			}
 			if(course1Semester < course2Semester) {
-				s = s.concat(course1Semester + " is less than "
+				s.append(course1Semester + " is less than "
 						+ course2Semester);
 			}
-			s = s.concat("\n");
+			s.append("\n");
 		}
-		return s;
+		return s.toString();
 	}
 
 	/**
-	 * this performs the same logic as calculateSameDayViolations(),
-	 * however it outputs
-	 * details of the calculations.
+	 * this performs the same logic as calculateSameDayViolations().
 	 */
 	public void examineSameDayViolations() {
-		for(int i = 0; i < this.scheduleMain.size(); i++) {
-			List<String> semesterClassList = this.scheduleMain.get(i);
-			
-			// course days are on odd indexes for course at previous index.
-			for(int j = 3; j < semesterClassList.size(); j=j+2) {
-				for(int k = j+2; k < semesterClassList.size(); k=k+2) {
-					if(semesterClassList.get(j).equals(semesterClassList.get(k))) {
-						
-						// add a conflict for each course on the same day.
-						addConflict(semesterClassList.get(j-1));
-						addConflict(semesterClassList.get(k-1));
-					}
-				}
-			}
-		}
+		calculateSameDayViolations();
 	}
 }
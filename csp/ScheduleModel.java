@@ -0,0 +1,248 @@
+package csp;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The catalog of one scheduling problem: courses, constraints, & semester map,
+ * with the constraints compiled and the value tables of every course built once.
+ *
+ * A model is shared by every search of its catalog, including searches on different threads.
+ * It is not changed after it is created, and its input lists must not be changed
+ * (imported again, or pruned) while it is in use.
+ */
+public class ScheduleModel {
+	private static final int DAYS = Day.values().length;
+
+	private final ConstraintList constraintList;
+	private final CourseList courseList;
+	private final SemesterList semesterList;
+	private final CompiledConstraintList constraints;
+
+	// course index, domain index  |  value, semester ID, & semester day index of the value
+	private final int[][] values;
+	private final int[][] valueSemesters;
+	private final int[][] valueSemesterDays;
+	// semester day index  |  course & domain index of every value on that day of the semester
+	private final int[][] semesterDayCourses;
+	private final int[][] semesterDayValues;
+	private final int totalValues;
+	// SHA-256 of the normalized input lists, in hex
+	private final String fingerprint;
+
+	/**
+	 * Creates the model of already imported input lists.
+	 * @param c
+	 * @param courseListIn
+	 * @param sl
+	 */
+	ScheduleModel(ConstraintList c, CourseList courseListIn, SemesterList sl){
+		this(c, courseListIn, sl, null);
+	}
+
+	/**
+	 * Creates the model of input lists with a known fingerprint, such as lists read from a model file.
+	 * @param c
+	 * @param courseListIn
+	 * @param sl
+	 * @param fingerprintIn fingerprint of the lists, null to create it
+	 */
+	ScheduleModel(ConstraintList c, CourseList courseListIn, SemesterList sl, String fingerprintIn){
+		this.constraintList = c;
+		this.courseList = courseListIn;
+		this.semesterList = sl;
+		this.constraints = c.compile(courseListIn);
+
+		int courseCount = courseListIn.size();
+		int semesterDayCount = sl.numberOfSemesters() * DAYS;
+		this.values = new int[courseCount][];
+		this.valueSemesters = new int[courseCount][];
+		this.valueSemesterDays = new int[courseCount][];
+		int[] semesterDaySizes = new int[semesterDayCount];
+		int valueCount = 0;
+
+		for(int i = 0; i < courseCount; i++) {
+			Course course = courseListIn.get(i);
+			int domainSize = course.getDomainSize();
+			this.values[i] = new int[domainSize];
+			this.valueSemesters[i] = new int[domainSize];
+			this.valueSemesterDays[i] = new int[domainSize];
+			for(int j = 0; j < domainSize; j++) {
+				int value = course.getDomainEntry(j);
+				int semesterDay = sl.getSemesterIndexByID(value / 10) * DAYS + value % 10;
+				this.values[i][j] = value;
+				this.valueSemesters[i][j] = value / 10;
+				this.valueSemesterDays[i][j] = semesterDay;
+				semesterDaySizes[semesterDay]++;
+			}
+			valueCount += domainSize;
+		}
+		this.totalValues = valueCount;
+
+		this.semesterDayCourses = new int[semesterDayCount][];
+		this.semesterDayValues = new int[semesterDayCount][];
+		for(int i = 0; i < semesterDayCount; i++) {
+			this.semesterDayCourses[i] = new int[semesterDaySizes[i]];
+			this.semesterDayValues[i] = new int[semesterDaySizes[i]];
+			semesterDaySizes[i] = 0;
+		}
+		for(int i = 0; i < courseCount; i++) {
+			for(int j = 0; j < this.values[i].length; j++) {
+				int semesterDay = this.valueSemesterDays[i][j];
+				this.semesterDayCourses[semesterDay][semesterDaySizes[semesterDay]] = i;
+				this.semesterDayValues[semesterDay][semesterDaySizes[semesterDay]] = j;
+				semesterDaySizes[semesterDay]++;
+			}
+		}
+		this.fingerprint = fingerprintIn != null ? fingerprintIn : createFingerprint();
+	}
+
+	/**
+	 * Assistant method to constructor.
+	 * Hashes the content of the input lists, normalized so the order of lines
+	 * in the input files does not change the fingerprint:
+	 * courses sorted by name with their domain values, constraints sorted, semesters in ID order.
+	 * @return SHA-256 in hex
+	 */
+	private String createFingerprint() {
+		List<String> courses = new ArrayList<>();
+		for(int i = 0; i < this.values.length; i++) {
+			int[] sortedValues = this.values[i].clone();
+			Arrays.sort(sortedValues);
+			courses.add(this.courseList.get(i).getName() + Arrays.toString(sortedValues));
+		}
+		Collections.sort(courses);
+
+		List<String> constraintLines = new ArrayList<>();
+		for(int i = 0; i < this.constraintList.size(); i++) {
+			constraintLines.add(this.constraintList.courseName1(i) + " " + this.constraintList.op(i)
+					+ " " + this.constraintList.courseName2(i));
+		}
+		Collections.sort(constraintLines);
+
+		List<Integer> semesterIDs = new ArrayList<>();
+		for(int i = 0; i < this.semesterList.numberOfSemesters(); i++) {
+			semesterIDs.add(this.semesterList.getSemesterID(i));
+		}
+		Collections.sort(semesterIDs);
+
+		StringBuilder content = new StringBuilder();
+		content.append("courses\n");
+		for(String course : courses) {
+			content.append(course).append('\n');
+		}
+		content.append("constraints\n");
+		for(String line : constraintLines) {
+			content.append(line).append('\n');
+		}
+		content.append("semesters\n");
+		for(int id : semesterIDs) {
+			content.append(id).append('\t').append(this.semesterList.getSemesterName(id)).append('\n');
+		}
+		return sha256(content.toString());
+	}
+
+	/**
+	 * Returns the SHA-256 of a String's UTF-8 bytes, in hex.
+	 * @param s
+	 * @return
+	 */
+	static String sha256(String s) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder();
+			for(byte b : hash) {
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform has SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Imports the 3 input files and creates the model of them.
+	 * @param classes File of courses
+	 * @param constraints File of constraints
+	 * @param semesterMap File of semesters
+	 * @return
+	 */
+	public static ScheduleModel importFiles(File classes, File constraints, File semesterMap) {
+		ConstraintList constraintList = new ConstraintList();
+		CourseList courseList = new CourseList();
+		SemesterList semesterList = new SemesterList();
+		constraintList.importConstraintsToString(constraints);
+		semesterList.importSemesterMap(semesterMap);
+		courseList.importCoursesFromFile(classes, semesterList);
+		return new ScheduleModel(constraintList, courseList, semesterList);
+	}
+
+	/**
+	 * Returns the index of a course by name.
+	 * @param name of the course
+	 * @return
+	 * @throws IllegalArgumentException if the catalog has no course of that name
+	 */
+	public int getCourseIndex(String name) {
+		if(this.courseList.getCourseByName(name) == null) {
+			throw new IllegalArgumentException("Unknown course: " + name);
+		}
+		return this.courseList.getCourseIndex(name);
+	}
+	public int getCourseCount() {
+		return this.values.length;
+	}
+	public ConstraintList getConstraintList() {
+		return this.constraintList;
+	}
+	public CourseList getCourseList() {
+		return this.courseList;
+	}
+	public SemesterList getSemesterList() {
+		return this.semesterList;
+	}
+	public CompiledConstraintList getConstraints() {
+		return this.constraints;
+	}
+	/**
+	 * Returns the SHA-256 of the normalized input lists, in hex.
+	 * Models of the same catalog, constraints, & semester map have the same fingerprint.
+	 * @return
+	 */
+	public String getFingerprint() {
+		return this.fingerprint;
+	}
+	/**
+	 * Returns the number of values in the domains of every course.
+	 * @return
+	 */
+	public int getTotalValues() {
+		return this.totalValues;
+	}
+
+	// Value tables, indexed by course index & domain index.
+	// The returned arrays must not be changed.
+	int[] getValues(int course) {
+		return this.values[course];
+	}
+	int[] getValueSemesters(int course) {
+		return this.valueSemesters[course];
+	}
+	int[] getValueSemesterDays(int course) {
+		return this.valueSemesterDays[course];
+	}
+	// Values on a day of a semester, indexed by semester day index.
+	// The returned arrays must not be changed.
+	int[] getSemesterDayCourses(int semesterDay) {
+		return this.semesterDayCourses[semesterDay];
+	}
+	int[] getSemesterDayValues(int semesterDay) {
+		return this.semesterDayValues[semesterDay];
+	}
+}
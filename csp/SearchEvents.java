@@ -0,0 +1,143 @@
+package csp;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events of the two-stage choice search.
+ *
+ * Each event type is cached, and the search only creates an event
+ * once its type is enabled in a running recording.
+ * Event types are only looked up once a Flight Recorder has been started,
+ * by the command line or jcmd, as loading them starts JFR, which takes a large part of a second.
+ * So with no recorder each event costs one static read.
+ *
+ * Enable them in a recording with, for example:
+ * 	java -XX:StartFlightRecording:filename=search.jfr,settings=profile csp.Driver
+ * and view them with: jfr print --categories "CSP Scheduling" search.jfr
+ */
+final class SearchEvents {
+	private SearchEvents() {
+	}
+
+	static boolean isRestartEnabled() {
+		return FlightRecorder.isInitialized() && Types.RESTART.isEnabled();
+	}
+	static boolean isWalkEnabled() {
+		return FlightRecorder.isInitialized() && Types.WALK.isEnabled();
+	}
+	static boolean isTabuOverrideEnabled() {
+		return FlightRecorder.isInitialized() && Types.TABU_OVERRIDE.isEnabled();
+	}
+	static boolean isSolutionFoundEnabled() {
+		return FlightRecorder.isInitialized() && Types.SOLUTION_FOUND.isEnabled();
+	}
+
+	/**
+	 * The event types, loaded the first time an event is checked after a Flight Recorder has started.
+	 */
+	private static final class Types {
+		static final EventType RESTART = EventType.getEventType(Restart.class);
+		static final EventType WALK = EventType.getEventType(Walk.class);
+		static final EventType TABU_OVERRIDE = EventType.getEventType(TabuOverride.class);
+		static final EventType SOLUTION_FOUND = EventType.getEventType(SolutionFound.class);
+	}
+
+	/**
+	 * A random restart, from creating its random schedule to the end of its walks.
+	 */
+	@Name("csp.Restart")
+	@Label("Restart")
+	@Category("CSP Scheduling")
+	@Description("Random restart of a search chain, until its walks end")
+	@StackTrace(false)
+	static class Restart extends Event {
+		@Label("Restart Number")
+		long restart;
+
+		@Label("Start Conflicts")
+		@Description("Conflicts of the random schedule")
+		int startConflicts;
+
+		@Label("End Conflicts")
+		@Description("Conflicts of the schedule when the restart ended")
+		int endConflicts;
+
+		@Label("Walks")
+		long walks;
+	}
+
+	/**
+	 * A course walked through its values, or with best improvement, the best move of the schedule.
+	 */
+	@Name("csp.Walk")
+	@Label("Walk")
+	@Category("CSP Scheduling")
+	@Description("Course walked through its domain, or moved by best improvement, moving it to its best value")
+	@StackTrace(false)
+	static class Walk extends Event {
+		@Label("Course")
+		String course;
+
+		@Label("Domain Size")
+		int domainSize;
+
+		@Label("Best Delta")
+		@Description("Change in conflicts of the value the course moved to")
+		int bestDelta;
+
+		@Label("Conflicts")
+		@Description("Conflicts of the schedule after the walk")
+		int conflicts;
+	}
+
+	/**
+	 * A tabu course or value allowed because it would beat the fewest conflicts found,
+	 * only emitted for the course walked or value moved to.
+	 */
+	@Name("csp.TabuOverride")
+	@Label("Tabu Override")
+	@Category("CSP Scheduling")
+	@Description("Tabu course or value allowed by aspiration, as it would beat the fewest conflicts found")
+	@StackTrace(false)
+	static class TabuOverride extends Event {
+		@Label("Course")
+		String course;
+
+		@Label("Value")
+		@Description("Tabu value allowed, 0 for a tabu course")
+		int value;
+
+		@Label("Minimum Conflicts Found")
+		int minConflictsFound;
+	}
+
+	/**
+	 * A schedule with no conflicts found by a search chain.
+	 */
+	@Name("csp.SolutionFound")
+	@Label("Solution Found")
+	@Category("CSP Scheduling")
+	@Description("Schedule with no conflicts found by a search chain")
+	@StackTrace(false)
+	static class SolutionFound extends Event {
+		@Label("Restarts")
+		long restarts;
+
+		@Label("Iterations")
+		long iterations;
+
+		@Label("Value Checks")
+		long valueChecks;
+
+		@Label("Time To Solution")
+		@Timespan(Timespan.NANOSECONDS)
+		long timeToSolution;
+	}
+}
@@ -0,0 +1,49 @@
+package csp;
+import java.util.SplittableRandom;
+
+/**
+ * A local search over the values of a Schedule.
+ * Implementations keep their own settings and the stats of their last search.
+ * Run through CSPAlgorithm.search(), which supplies the schedule, course list, and random stream.
+ */
+public interface SearchStrategy {
+
+	/**
+	 * Searches for a schedule with no conflicts.
+	 * @param schedule starting schedule, may be changed by the search.
+	 * @param courseList courses of the schedule, with their domains.
+	 * @param r random stream of the search, the same stream gives the same search.
+	 * @return the schedule found, or the lowest conflict schedule found if none.
+	 */
+	Schedule search(Schedule schedule, CourseList courseList, SplittableRandom r);
+
+	/**
+	 * Returns true if the last search found a schedule with no conflicts.
+	 * @return
+	 */
+	boolean isScheduleFound();
+
+	/**
+	 * Returns the number of steps taken by the last search.
+	 * @return
+	 */
+	long getIterationCount();
+
+	/**
+	 * Returns the number of course values scored by the last search.
+	 * @return
+	 */
+	long getEvaluationCount();
+
+	/**
+	 * Returns the fewest conflicts found by the last search.
+	 * @return
+	 */
+	int getMinConflictsFound();
+
+	/**
+	 * Returns a String statement describing the last results.
+	 * @return
+	 */
+	String getLastStats();
+}
@@ -1,11 +1,14 @@
 package csp;
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
 
 /**
  * Specialized list for semesters.
@@ -19,10 +22,23 @@ public class SemesterList{
 	private Map<String, Integer> mapNameToID;
 	private Map<Integer, Semester> mapIdToSemester;
 	private Map<String, Semester> mapNameToSemester;
-	private String valueSeparator = "\\s+"; 
+	// semester ID - minimumID  |  semester index, -1 for no semester
+	// null when the IDs are too sparse for an array, semesters are then found by mapIdToSemester
+	private int[] mapIdToIndex;
+	private int minimumID;
+	// the array lookup may span at most this many IDs per semester, plus MAX_EXTRA_ID_SPAN
+	private static final int MAX_ID_SPAN_PER_SEMESTER = 16;
+	private static final int MAX_EXTRA_ID_SPAN = 1024;
 
 	
 	SemesterList(){
+		clear();
+	}
+	
+	/**
+	 * Removes every semester from the list & the maps.
+	 */
+	private void clear() {
 		this.mapIdToName = new HashMap<>();
 		this.mapNameToID = new HashMap<>();
 		this.mapIdToSemester = new HashMap<>();
@@ -32,38 +48,123 @@ public class SemesterList{
 	
 	
 	/**
-	 * Replaces previous list with the imported list.
+	 * Replaces previous list with the imported list, read one line at a time.
 	 * Expected format of input file is:
 	 * SeasonSPACEyearTABnumber.
 	 * Will import season & year as one string, number as one Integer.
+	 * Blank lines are skipped.
 	 * @param f
+	 * @throws IllegalArgumentException naming the line of a semester that cannot be imported, or where the file cannot be read
 	 */
 	public void importSemesterMap(File f) {
-		Scanner scanner;
-		String line = "";
-		this.semesters = new ArrayList<Semester>();
-		try {
-			scanner = new Scanner(f);
-			int count = 0;
-			while(scanner.hasNextLine()){
-				line = ("\n"+scanner.nextLine());
-				line = line.trim();
-				String[] r = line.split(this.valueSeparator);
-				String name = r[0] + " " + r[1];
-				// instantiate new semester from the input line
-				Semester s = new Semester(Season.valueOf(r[0].toUpperCase()), 
-						Integer.parseInt(r[1]), Integer.parseInt(r[2]), name);
-				// add new semester to list
-				this.semesters.add(s);
-				this.mapIdToName.put(s.getID(), s.getName());
-				this.mapNameToID.put(s.getName(), s.getID());
-				this.mapIdToSemester.put(s.getID(), s);
-				this.mapNameToSemester.put(s.getName(), s);
-				s.setIndex(count);
-				count++;
+		clear();
+		int lineNumber = 0;
+		try(BufferedReader reader = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				lineNumber++;
+				String[] r = Util.splitValues(line);
+				if(r.length == 0) {
+					continue;
+				}
+				// instantiate new semester from the input line, & add it to the list
+				addSemester(createSemester(f, lineNumber, r), this.semesters.size());
 			}
-			scanner.close();
-		} catch (FileNotFoundException e) {
+		} catch (IOException e) {
+			throw Util.readError(f, lineNumber, e);
+		}
+		createIdToIndexMap();
+	}
+	
+	/**
+	 * Assistant method to importSemesterMap.
+	 * Creates a semester from the values of a line.
+	 * @param f
+	 * @param lineNumber
+	 * @param r values of the line
+	 * @return
+	 */
+	private Semester createSemester(File f, int lineNumber, String[] r) {
+		if(r.length != 3) {
+			throw Util.inputError(f, lineNumber, "expected season, year, & semester ID, found " + r.length + " values");
+		}
+		Season season;
+		int year;
+		int id;
+		try {
+			season = Season.valueOf(r[0].toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw Util.inputError(f, lineNumber, "unknown season " + r[0] + ", expected one of " + Arrays.toString(Season.values()));
+		}
+		try {
+			year = Integer.parseInt(r[1]);
+			id = Integer.parseInt(r[2]);
+		} catch (NumberFormatException e) {
+			throw Util.inputError(f, lineNumber, "year & semester ID must be whole numbers");
+		}
+		// values are semester ID * 10 + day
+		// a value of 0 is an unassigned course, so ID 0 could not be told from no semester
+		if(id < 1 || id > (Integer.MAX_VALUE - Day.values().length) / 10) {
+			throw Util.inputError(f, lineNumber, "semester ID " + id + " is out of range");
+		}
+		if(this.mapIdToSemester.containsKey(id)) {
+			throw Util.inputError(f, lineNumber, "duplicate semester ID " + id);
+		}
+		return new Semester(season, year, id, r[0] + " " + r[1]);
+	}
+	
+	/**
+	 * Replaces previous list with already created semesters, such as ones read from a model file.
+	 * @param semesterList in semester order
+	 */
+	void importSemesters(List<Semester> semesterList) {
+		clear();
+		for(int i = 0; i < semesterList.size(); i++) {
+			addSemester(semesterList.get(i), i);
+		}
+		createIdToIndexMap();
+	}
+	
+	/**
+	 * Assistant method to importSemesterMap & importSemesters.
+	 * Adds a semester to the list & the maps.
+	 * @param s
+	 * @param index of s in the list
+	 */
+	private void addSemester(Semester s, int index) {
+		this.semesters.add(s);
+		this.mapIdToName.put(s.getID(), s.getName());
+		this.mapNameToID.put(s.getName(), s.getID());
+		this.mapIdToSemester.put(s.getID(), s);
+		this.mapNameToSemester.put(s.getName(), s);
+		s.setIndex(index);
+	}
+	
+	/**
+	 * Assistant method to importSemesterMap.
+	 * Creates the array lookup of semester index by semester ID,
+	 * unless the IDs are so sparse the array would be far larger than the list.
+	 */
+	private void createIdToIndexMap() {
+		if(this.semesters.isEmpty()) {
+			this.mapIdToIndex = new int[0];
+			return;
+		}
+		this.minimumID = Integer.MAX_VALUE;
+		int maximumID = Integer.MIN_VALUE;
+		for(Semester s : this.semesters) {
+			this.minimumID = Math.min(this.minimumID, s.getID());
+			maximumID = Math.max(maximumID, s.getID());
+		}
+		long span = (long) maximumID - this.minimumID + 1;
+		if(span > (long) this.semesters.size() * MAX_ID_SPAN_PER_SEMESTER + MAX_EXTRA_ID_SPAN) {
+			this.mapIdToIndex = null;
+			return;
+		}
+		this.mapIdToIndex = new int[(int) span];
+		Arrays.fill(this.mapIdToIndex, -1);
+		for(Semester s : this.semesters) {
+			this.mapIdToIndex[s.getID() - this.minimumID] = s.getIndex();
 		}
 	}
 	public Semester getSemesterByIndex(int index) {
@@ -91,6 +192,17 @@ public class SemesterList{
 	public Semester getSemesterByID(int id) {
 		return this.mapIdToSemester.get(id);
 	}
+	/**
+	 * For the parameter semesterID, returns the index of the semester in this list.
+	 * @param id
+	 * @return
+	 */
+	public int getSemesterIndexByID(int id) {
+		if(this.mapIdToIndex == null) {
+			return this.mapIdToSemester.get(id).getIndex();
+		}
+		return this.mapIdToIndex[id - this.minimumID];
+	}
 	public int getSemesterID(String name) {
 		return this.mapNameToID.get(name);
 	}
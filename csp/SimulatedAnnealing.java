@@ -0,0 +1,150 @@
+package csp;
+import java.util.SplittableRandom;
+
+/**
+ * Simulated annealing search:
+ * 	Random Initialization
+ * 		Random Move: a random value for a random course, scored by its change in conflicts.
+ * 			Accept: always if conflicts do not rise, 
+ * 				otherwise with chance e^(-rise/temperature).
+ * 
+ * The temperature falls by the cooling schedule over maxSteps steps.
+ * Accepted moves are applied in place, the schedule is only copied when it beats the best found.
+ */
+public class SimulatedAnnealing implements SearchStrategy {
+	// settings
+	private CoolingSchedule coolingSchedule = CoolingSchedule.GEOMETRIC;
+	private double initialTemperature = 1.0;
+	private double finalTemperature = 0.05;
+	private long maxSteps = 1_000_000;
+	private TraceSink traceSink = new NullTraceSink();
+
+	// stats of last search
+	private long iterationCount;
+	private long evaluationCount;
+	private long acceptedMoves;
+	private int minConflictsFound;
+	private boolean scheduleFound;
+
+	@Override
+	public Schedule search(Schedule schedule, CourseList courseList, SplittableRandom r) {
+		this.iterationCount = 0;
+		this.evaluationCount = 0;
+		this.acceptedMoves = 0;
+
+		schedule.createRandomSchedule(r);
+		schedule.calculateAllViolations();
+		Schedule bestSchedule = new Schedule(schedule);
+		this.minConflictsFound = schedule.getTotalConflicts();
+
+		for(long step = 0; step < this.maxSteps && this.minConflictsFound > 0; step++) {
+			this.iterationCount++;
+			double temperature = this.coolingSchedule.temperature(
+					this.initialTemperature, this.finalTemperature, step, this.maxSteps);
+
+			// random move, by course index so scoring it needs no lookup by name
+			int course = r.nextInt(courseList.size());
+			Course randomCourse = courseList.get(course);
+			int value = randomCourse.getDomainEntry(r.nextInt(randomCourse.getDomainSize()));
+			this.evaluationCount++;
+			int delta = schedule.calculateConflictDelta(course, value);
+
+			// accept improving or equal moves, and worse moves by chance
+			if(delta <= 0 || r.nextDouble() < Math.exp(-delta / temperature)) {
+				schedule.applyCourseMove(course, value);
+				this.acceptedMoves++;
+				if(schedule.getTotalConflicts() < this.minConflictsFound) {
+					this.minConflictsFound = schedule.getTotalConflicts();
+					bestSchedule = new Schedule(schedule);
+					this.traceSink.record(bestSchedule);
+				}
+			}
+		}
+		this.scheduleFound = this.minConflictsFound == 0;
+		return bestSchedule;
+	}
+
+	@Override
+	public boolean isScheduleFound() {
+		return this.scheduleFound;
+	}
+	@Override
+	public long getIterationCount() {
+		return this.iterationCount;
+	}
+	@Override
+	public long getEvaluationCount() {
+		return this.evaluationCount;
+	}
+	@Override
+	public int getMinConflictsFound() {
+		return this.minConflictsFound;
+	}
+	public long getAcceptedMoves() {
+		return this.acceptedMoves;
+	}
+
+	public TraceSink getTraceSink() {
+		return this.traceSink;
+	}
+	/**
+	 * Sets where each new best schedule is recorded.
+	 * Tracing is off until a sink is set.
+	 * @param traceSink
+	 */
+	public void setTraceSink(TraceSink traceSink) {
+		this.traceSink = traceSink;
+	}
+
+	public CoolingSchedule getCoolingSchedule() {
+		return this.coolingSchedule;
+	}
+	public void setCoolingSchedule(CoolingSchedule coolingSchedule) {
+		this.coolingSchedule = coolingSchedule;
+	}
+	public double getInitialTemperature() {
+		return this.initialTemperature;
+	}
+	/**
+	 * Sets the starting temperature, 
+	 * a move adding this many conflicts is first accepted with chance 1/e.
+	 * @param initialTemperature
+	 */
+	public void setInitialTemperature(double initialTemperature) {
+		this.initialTemperature = initialTemperature;
+	}
+	public double getFinalTemperature() {
+		return this.finalTemperature;
+	}
+	public void setFinalTemperature(double finalTemperature) {
+		this.finalTemperature = finalTemperature;
+	}
+	public long getMaxSteps() {
+		return this.maxSteps;
+	}
+	public void setMaxSteps(long maxSteps) {
+		this.maxSteps = maxSteps;
+	}
+
+	/**
+	 * Returns a String statement describing the last results.
+	 * @return String
+	 */
+	@Override
+	public String getLastStats() {
+		String s = "";
+		if(this.scheduleFound) {
+			s = s.concat(
+					"A successful schedule has been found by Simulated Annealing.\nIt took "+
+					this.iterationCount+" steps, accepting "+ this.acceptedMoves+ " moves, to find the schedule.");
+		}
+		if(!this.scheduleFound) {
+			s = s.concat(
+					"No successful schedule was found by Simulated Annealing.\nSearch took "+
+					this.iterationCount+" steps, accepting "+ this.acceptedMoves+ " moves.\n"
+					+ "Minimum conflict schedule found by search had "+ this.minConflictsFound
+							+ " conflicts.");
+		}
+		return s;
+	}
+}
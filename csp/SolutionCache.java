@@ -0,0 +1,327 @@
+package csp;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of schedules with no conflicts, in front of the solvers.
+ * Keyed by the fingerprint of a ScheduleModel, plus the restrictions of a PlanRequest.
+ *
+ * Keeps up to capacity solutions in memory, dropping the least recently used,
+ * and every solution in a directory of files, one per key, that is kept between runs.
+ * A solution read from the cache is checked against the model before it is returned,
+ * a solution that no longer fits is dropped and solved again.
+ *
+ * Safe to use from several threads.
+ */
+public class SolutionCache {
+	private int capacity;
+	private File directory;	// null to keep solutions only in memory
+	// key  |  course name  |  value, least recently used first
+	private LinkedHashMap<String, Map<String, Integer>> memory;
+
+	// stats
+	private AtomicLong memoryHits = new AtomicLong();
+	private AtomicLong diskHits = new AtomicLong();
+	private AtomicLong misses = new AtomicLong();
+	private AtomicLong writeFailures = new AtomicLong();
+
+	/**
+	 * @param capacity solutions kept in memory
+	 * @param directory where solutions are stored between runs, created if needed; null for none
+	 */
+	SolutionCache(int capacity, File directory){
+		this.capacity = capacity;
+		this.directory = directory;
+		this.memory = new LinkedHashMap<String, Map<String, Integer>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Map<String, Integer>> eldest) {
+				return size() > SolutionCache.this.capacity;
+			}
+		};
+		if(directory != null) {
+			directory.mkdirs();
+		}
+	}
+
+	/**
+	 * Returns the cached schedule of alg's model,
+	 * or runs twoStageChoiceRandomSelectionAndRandomRestart() and caches the result if it has no conflicts.
+	 * @param alg
+	 * @return
+	 */
+	public Schedule solve(CSPAlgorithm alg) {
+		ScheduleModel model = alg.getModel();
+		String key = model.getFingerprint();
+		Map<String, Integer> courseValues = get(key, model, new PlanRequest(key));
+		if(courseValues != null) {
+			Schedule schedule = new Schedule(model, courseValues);
+			schedule.calculateAllViolations();
+			return schedule;
+		}
+		this.misses.incrementAndGet();
+		Schedule schedule = alg.twoStageChoiceRandomSelectionAndRandomRestart();
+		if(schedule.getTotalConflicts() == 0) {
+			put(key, schedule.getCourseValueMap());
+		}
+		return schedule;
+	}
+
+	/**
+	 * Returns the cached result of a request,
+	 * or searches with the solver and caches the result if solved.
+	 * @param solver
+	 * @param model the model of the solver
+	 * @param request
+	 * @return
+	 */
+	public PlanResult solve(BacktrackingSolver solver, ScheduleModel model, PlanRequest request) {
+		String key = getKey(model, request);
+		Map<String, Integer> courseValues = get(key, model, request);
+		if(courseValues != null) {
+			return new PlanResult(request, BacktrackingSolver.Status.SOLVED, courseValues, 0, 0);
+		}
+		this.misses.incrementAndGet();
+		BacktrackingSolver.Status status = solver.search(request);
+		courseValues = solver.getCourseValueMap();
+		if(status == BacktrackingSolver.Status.SOLVED) {
+			put(key, courseValues);
+		}
+		return new PlanResult(request, status, courseValues, solver.getNodeCount(), solver.getElapsedMillis());
+	}
+
+	/**
+	 * Returns the key of a request of a model:
+	 * the SHA-256 of the model fingerprint and the sorted restrictions of the request.
+	 * @param model
+	 * @param request
+	 * @return
+	 */
+	public static String getKey(ScheduleModel model, PlanRequest request) {
+		return ScheduleModel.sha256(model.getFingerprint()
+				+ "\ncompleted " + new TreeSet<>(request.getCompletedCourses())
+				+ "\nfixed " + new TreeMap<>(request.getFixedCourses())
+				+ "\nexcluded " + new TreeSet<>(request.getExcludedSemesters()));
+	}
+
+	/**
+	 * Returns true if the values schedule every course of the model that is not completed,
+	 * in its domain, with the request's fixed values, none in an excluded semester,
+	 * and with no conflicts between the scheduled courses.
+	 * @param model
+	 * @param request
+	 * @param courseValues
+	 * @return
+	 */
+	private static boolean fitsRequest(ScheduleModel model, PlanRequest request, Map<String, Integer> courseValues) {
+		CourseList courseList = model.getCourseList();
+		int[] values = new int[model.getCourseCount()];
+		Map<Integer, String> semesterDays = new HashMap<>();
+		for(int i = 0; i < values.length; i++) {
+			String name = courseList.get(i).getName();
+			if(request.getCompletedCourses().contains(name)) {
+				continue;
+			}
+			Integer value = courseValues.get(name);
+			if(value == null || !courseList.get(i).hasDomainEntry(value)
+					|| request.getExcludedSemesters().contains(value / 10)
+					|| semesterDays.put(value, name) != null) {
+				return false;
+			}
+			Integer fixed = request.getFixedCourses().get(name);
+			if(fixed != null && !fixed.equals(value)) {
+				return false;
+			}
+			values[i] = value;
+		}
+		CompiledConstraintList constraints = model.getConstraints();
+		for(int i = 0; i < constraints.size(); i++) {
+			int course1 = constraints.course1(i);
+			int course2 = constraints.course2(i);
+			if(values[course1] != 0 && values[course2] != 0
+					&& constraints.isViolated(i, values[course1] / 10, values[course2] / 10)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the solution of a key from memory, or from its file, if it still fits the request.
+	 * A hit is only counted once the solution is checked; one that no longer fits is removed.
+	 * @param key
+	 * @param model
+	 * @param request
+	 * @return null if neither has a solution that fits
+	 */
+	private Map<String, Integer> get(String key, ScheduleModel model, PlanRequest request) {
+		Map<String, Integer> courseValues;
+		synchronized(this.memory) {
+			courseValues = this.memory.get(key);
+		}
+		boolean inMemory = courseValues != null;
+		if(!inMemory) {
+			courseValues = read(key);
+			if(courseValues == null) {
+				return null;
+			}
+		}
+		if(!fitsRequest(model, request, courseValues)) {
+			remove(key);
+			return null;
+		}
+		if(inMemory) {
+			this.memoryHits.incrementAndGet();
+		}
+		else {
+			this.diskHits.incrementAndGet();
+			synchronized(this.memory) {
+				this.memory.put(key, courseValues);
+			}
+		}
+		return courseValues;
+	}
+
+	/**
+	 * Keeps a solution in memory and writes it to its file.
+	 * @param key
+	 * @param courseValues
+	 */
+	private void put(String key, Map<String, Integer> courseValues) {
+		Map<String, Integer> copy = Collections.unmodifiableMap(new HashMap<>(courseValues));
+		synchronized(this.memory) {
+			this.memory.put(key, copy);
+		}
+		write(key, copy);
+	}
+
+	/**
+	 * Drops a solution from memory and its file.
+	 * @param key
+	 */
+	private void remove(String key) {
+		synchronized(this.memory) {
+			this.memory.remove(key);
+		}
+		if(this.directory != null) {
+			new File(this.directory, key + ".txt").delete();
+		}
+	}
+
+	/**
+	 * Reads the solution file of a key: one "course value" pair per line.
+	 * @param key
+	 * @return null if there is no file, or it cannot be read
+	 */
+	private Map<String, Integer> read(String key) {
+		if(this.directory == null) {
+			return null;
+		}
+		File f = new File(this.directory, key + ".txt");
+		if(!f.isFile()) {
+			return null;
+		}
+		Map<String, Integer> courseValues = new HashMap<>();
+		try(BufferedReader reader = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				String[] pair = line.trim().split("\\s+");
+				if(pair.length == 2) {
+					courseValues.put(pair[0], Integer.parseInt(pair[1]));
+				}
+			}
+		} catch (IOException | NumberFormatException e) {
+			return null;
+		}
+		return Collections.unmodifiableMap(courseValues);
+	}
+
+	/**
+	 * Writes the solution file of a key, through a temporary file
+	 * so a file is never read half written.
+	 * A solution that cannot be written is only kept in memory, and counted by getWriteFailures();
+	 * its temporary file is removed either way.
+	 * @param key
+	 * @param courseValues
+	 */
+	private void write(String key, Map<String, Integer> courseValues) {
+		if(this.directory == null) {
+			return;
+		}
+		List<String> names = new ArrayList<>(courseValues.keySet());
+		Collections.sort(names);
+		File temp = null;
+		try {
+			temp = File.createTempFile(key, ".tmp", this.directory);
+			try(BufferedWriter writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+				for(String name : names) {
+					writer.write(name + " " + courseValues.get(name) + "\n");
+				}
+			}
+			Files.move(temp.toPath(), new File(this.directory, key + ".txt").toPath(),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			this.writeFailures.incrementAndGet();
+		} finally {
+			if(temp != null) {
+				temp.delete();
+			}
+		}
+	}
+
+	/**
+	 * Removes every solution from memory, keeping their files.
+	 */
+	public void clearMemory() {
+		synchronized(this.memory) {
+			this.memory.clear();
+		}
+	}
+	public int getCapacity() {
+		return this.capacity;
+	}
+	public int getMemorySize() {
+		synchronized(this.memory) {
+			return this.memory.size();
+		}
+	}
+	public long getMemoryHits() {
+		return this.memoryHits.get();
+	}
+	public long getDiskHits() {
+		return this.diskHits.get();
+	}
+	public long getMisses() {
+		return this.misses.get();
+	}
+	/**
+	 * Returns the number of solutions that could not be written to their files.
+	 * @return
+	 */
+	public long getWriteFailures() {
+		return this.writeFailures.get();
+	}
+
+	/**
+	 * Returns a String statement describing the cache use so far.
+	 * @return String
+	 */
+	public String getStats() {
+		return this.memoryHits.get() + " memory hits, " + this.diskHits.get() + " disk hits, "
+				+ this.misses.get() + " misses, " + this.writeFailures.get() + " failed writes, " + getMemorySize() + " of " + this.capacity + " solutions in memory.";
+	}
+}
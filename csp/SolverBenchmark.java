@@ -0,0 +1,301 @@
+package csp;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.Set;
+
+/**
+ * Measures throughput and allocation of the solver hot paths.
+ * 
+ * Runs each benchmark against the input files in the working directory,
+ * then against larger catalogs made by WorkloadGenerator.
+ * For each benchmark, prints operations per second, bytes allocated per operation,
+ * and allocation rate, measured on the benchmark thread.
+ * 
+ * Arguments: [seconds measured per benchmark] [generated course counts...]
+ * Defaults to 2 seconds, for a generated catalog of 300 courses.
+ * 
+ * With the arguments: scaling [generated course counts...]
+ * instead measures import time, model memory, & time to solve once with each solver,
+ * of generated catalogs with planted solutions, of 30, 300, 3000, & 30000 courses by default.
+ * Searches are seeded, so runs measure the same work.
+ */
+public class SolverBenchmark {
+	// fixed seed, so every run measures the same searches
+	private static final long SEED = 1;
+	// least bytes of each course value: the course's domain, the model's 3 value tables, the tabu list,
+	// & the move delta table of best improvement
+	private static final int BYTES_PER_VALUE = 28;
+	// budgets of each solve of the scaling measurement
+	private static final int SCALING_RESTARTS = 10;
+	private static final long SCALING_MAX_MILLIS = 60_000;
+
+	// results are added here so the JIT cannot remove benchmarked work
+	private static volatile long blackhole;
+
+	private static com.sun.management.ThreadMXBean threadBean =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private long measureNanos;
+	private ConstraintList constraintList;
+	private CourseList courseList;
+	private SemesterList semesterList;
+
+	/**
+	 * A single operation of a benchmark.
+	 */
+	private interface Operation {
+		long run();
+	}
+
+	SolverBenchmark(int measureSeconds, ConstraintList c, CourseList courses, SemesterList sl){
+		this.measureNanos = measureSeconds * 1_000_000_000L;
+		this.constraintList = c;
+		this.courseList = courses;
+		this.semesterList = sl;
+	}
+
+	public static void main(String[] args) throws IOException {
+		int seconds = 2;
+		int[] courseCounts = {300};
+		if(args.length > 0 && args[0].equals("scaling")) {
+			courseCounts = new int[] {30, 300, 3000, 30000};
+			if(args.length > 1) {
+				courseCounts = new int[args.length - 1];
+				for(int i = 1; i < args.length; i++) {
+					courseCounts[i-1] = Integer.parseInt(args[i]);
+				}
+			}
+			measureScaling(courseCounts);
+			return;
+		}
+		if(args.length > 0) {
+			seconds = Integer.parseInt(args[0]);
+		}
+		if(args.length > 1) {
+			courseCounts = new int[args.length - 1];
+			for(int i = 1; i < args.length; i++) {
+				courseCounts[i-1] = Integer.parseInt(args[i]);
+			}
+		}
+
+		File workingDirectory = new File(System.getProperty("user.dir"));
+		File generatedDirectory = Files.createTempDirectory("csp-benchmark").toFile();
+		for(int i = -1; i < courseCounts.length; i++) {
+			File directory = workingDirectory;
+			if(i >= 0) {
+				directory = new File(generatedDirectory, "c" + courseCounts[i]);
+				WorkloadGenerator generator = new WorkloadGenerator();
+				generator.setCourseCount(courseCounts[i]);
+				generator.setSeed(SEED);
+				generator.write(directory);
+			}
+			ConstraintList constraintList = new ConstraintList();
+			CourseList courseList = new CourseList();
+			SemesterList semesters = new SemesterList();
+			constraintList.importConstraintsToString(new File(directory, "constraints.txt"));
+			semesters.importSemesterMap(new File(directory, "semesterMapping.txt"));
+			courseList.importCoursesFromFile(new File(directory, "classes.txt"), semesters);
+
+			System.out.println("Catalog: " + courseList.size() + " courses, " 
+					+ constraintList.size() + " constraints, " 
+					+ semesters.numberOfSemesters() + " semesters");
+			new SolverBenchmark(seconds, constraintList, courseList, semesters).runAll();
+		}
+	}
+
+	/**
+	 * Measures a generated catalog of each course count, each with a planted solution so it can be solved:
+	 * import time, memory held by the model, & one solve by each solver within its budget.
+	 * A catalog is skipped if its values cannot fit in the maximum heap.
+	 * The semesters of a generated catalog grow with its courses, so its values
+	 * grow with the square of its courses.
+	 * @param courseCounts
+	 * @throws IOException
+	 */
+	private static void measureScaling(int[] courseCounts) throws IOException {
+		File generatedDirectory = Files.createTempDirectory("csp-scaling").toFile();
+		Runtime runtime = Runtime.getRuntime();
+
+		for(int i = 0; i < courseCounts.length; i++) {
+			WorkloadGenerator generator = new WorkloadGenerator();
+			generator.setCourseCount(courseCounts[i]);
+			generator.setSeed(SEED);
+			long values = generator.getExpectedValues();
+			if(values * BYTES_PER_VALUE > runtime.maxMemory()) {
+				System.out.println(String.format("Catalog of %d courses: about %d values, needs over %.1f GB, more than the %.1f GB maximum heap. Skipped.",
+						courseCounts[i], values, values * BYTES_PER_VALUE / 1e9, runtime.maxMemory() / 1e9));
+				continue;
+			}
+			File directory = new File(generatedDirectory, "c" + courseCounts[i]);
+			generator.write(directory);
+
+			System.gc();
+			long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+			long start = System.nanoTime();
+			ScheduleModel model = ScheduleModel.importFiles(new File(directory, "classes.txt"),
+					new File(directory, "constraints.txt"), new File(directory, "semesterMapping.txt"));
+			long importNanos = System.nanoTime() - start;
+			System.gc();
+			long modelBytes = runtime.totalMemory() - runtime.freeMemory() - usedBefore;
+			System.out.println(String.format("Catalog: %d courses, %d constraints, %d semesters, %d values",
+					model.getCourseCount(), model.getConstraints().size(),
+					model.getSemesterList().numberOfSemesters(), model.getTotalValues()));
+			System.out.println(String.format("  import %.0f ms, model %.1f MB", importNanos / 1e6, modelBytes / 1e6));
+
+			// plain, with constraint weighting, & with best improvement & constraint weighting
+			for(int mode = 0; mode < 3; mode++) {
+				CSPAlgorithm alg = new CSPAlgorithm(model);
+				alg.setSeed(SEED);
+				alg.setIterationMax(SCALING_RESTARTS);
+				alg.setConstraintWeighting(mode > 0);
+				alg.setBestImprovement(mode > 1);
+				Schedule schedule = alg.twoStageChoiceRandomSelectionAndRandomRestart();
+				SolverMetrics metrics = alg.getMetrics();
+				System.out.println(String.format("  two-stage choice%s: %d conflicts in %.0f ms, %d restarts, %d walks",
+						mode == 0 ? "" : mode == 1 ? " with constraint weighting" : " with best improvement & weighting",
+						schedule.getTotalConflicts(), metrics.getElapsedNanos() / 1e6, metrics.getRestarts(), metrics.getWalks()));
+			}
+
+			BacktrackingSolver solver = new BacktrackingSolver(model);
+			solver.setMaxMillis(SCALING_MAX_MILLIS);
+			BacktrackingSolver.Status status = solver.search(null);
+			System.out.println(String.format("  backtracking: %s in %d ms, %d nodes",
+					status, solver.getElapsedMillis(), solver.getNodeCount()));
+		}
+	}
+
+	/**
+	 * Runs every benchmark against this benchmark's input lists.
+	 */
+	public void runAll() {
+		CSPAlgorithm alg = new CSPAlgorithm(this.constraintList, this.courseList, this.semesterList);
+		alg.setSeed(SEED);
+		SplittableRandom r = new SplittableRandom(SEED);
+		Schedule schedule = new Schedule(this.semesterList, this.constraintList, this.courseList);
+		schedule.createRandomSchedule(r);
+		schedule.calculateAllViolations();
+		Schedule calculated = new Schedule(schedule);
+
+		measure("createRandomSchedule", () -> {
+			schedule.createRandomSchedule(r);
+			return schedule.getCourseValue(this.courseList.get(0));
+		});
+		measure("calculateAllViolations", () -> {
+			calculated.calculateAllViolations();
+			return calculated.getTotalConflicts();
+		});
+		measure("calculateSameDayViolations", () -> {
+			calculated.clearConflicts();
+			calculated.calculateSameDayViolations();
+			return calculated.getTotalConflicts();
+		});
+		calculated.calculateAllViolations();
+		measure("walkThroughCourseValues", () -> {
+			alg.walkThroughCourseValues(calculated, calculated.getCourseWithMostConflicts(r));
+			return calculated.getTotalConflicts();
+		});
+		measureTwoStageChoice("twoStageChoiceRandomSelectionAndRandomRestart", alg);
+		CSPAlgorithm weighted = new CSPAlgorithm(alg.getModel());
+		weighted.setSeed(SEED);
+		weighted.setConstraintWeighting(true);
+		measureTwoStageChoice("twoStageChoice with constraint weighting", weighted);
+		CSPAlgorithm bestImprovement = new CSPAlgorithm(alg.getModel());
+		bestImprovement.setSeed(SEED);
+		bestImprovement.setConstraintWeighting(true);
+		bestImprovement.setBestImprovement(true);
+		measureTwoStageChoice("twoStageChoice with best improvement & weighting", bestImprovement);
+		measureBatch(1000);
+	}
+
+	/**
+	 * Measures full two-stage choice solves, and prints the metrics of all of them.
+	 * @param name of the benchmark
+	 * @param alg
+	 */
+	private void measureTwoStageChoice(String name, CSPAlgorithm alg) {
+		SolverMetrics totalMetrics = new SolverMetrics();
+		measure(name, () -> {
+			Schedule solved = alg.twoStageChoiceRandomSelectionAndRandomRestart();
+			SolverMetrics metrics = alg.getMetrics();
+			totalMetrics.add(metrics);
+			totalMetrics.setElapsedNanos(totalMetrics.getElapsedNanos() + metrics.getElapsedNanos());
+			return solved.getTotalConflicts();
+		});
+		System.out.println("    metrics: " + totalMetrics.toJson());
+	}
+
+	/**
+	 * Solves a batch of student requests with BatchScheduler, and prints its plans per second.
+	 * Each student has a random quarter of the courses completed at most,
+	 * and one random semester excluded.
+	 * @param students
+	 */
+	private void measureBatch(int students) {
+		ScheduleModel model = new ScheduleModel(this.constraintList, this.courseList, this.semesterList);
+		Random r = new Random(students);
+		List<PlanRequest> requests = new ArrayList<>();
+		for(int i = 0; i < students; i++) {
+			Set<String> completed = new HashSet<>();
+			int completedCount = r.nextInt(this.courseList.size() / 4 + 1);
+			for(int j = 0; j < completedCount; j++) {
+				completed.add(this.courseList.get(r.nextInt(this.courseList.size())).getName());
+			}
+			Set<Integer> excluded = new HashSet<>();
+			excluded.add(this.semesterList.getSemesterID(r.nextInt(this.semesterList.numberOfSemesters())));
+			requests.add(new PlanRequest("student" + i, completed, new HashMap<>(), excluded));
+		}
+
+		BatchScheduler batch = new BatchScheduler(model);
+		batch.solveAll(requests.iterator(), result -> blackhole += result.getNodeCount());
+		batch.solveAll(requests.iterator(), result -> blackhole += result.getNodeCount());
+		System.out.println(String.format("  %-48s %14.1f plans/s", "BatchScheduler (" + students + " students)",
+				batch.getPlansPerSecond()));
+		System.out.println("    " + batch.getLastStats().replace("\n", "\n    "));
+	}
+
+	/**
+	 * Runs an operation for the warm up time then the measured time, and prints its results.
+	 * @param name of the benchmark
+	 * @param op
+	 */
+	private void measure(String name, Operation op) {
+		long threadId = Thread.currentThread().getId();
+		runFor(op, this.measureNanos / 2);
+
+		long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+		long ops = runFor(op, this.measureNanos);
+		long elapsed = System.nanoTime() - start;
+		long allocated = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+		double seconds = elapsed / 1e9;
+		System.out.println(String.format("  %-48s %14.1f ops/s %14.1f B/op %10.1f MB/s",
+				name, ops / seconds, (double) allocated / ops, allocated / seconds / (1024 * 1024)));
+	}
+
+	/**
+	 * Runs an operation until the time has passed, at least once.
+	 * @param op
+	 * @param nanos
+	 * @return number of operations run
+	 */
+	private static long runFor(Operation op, long nanos) {
+		long ops = 0;
+		long result = 0;
+		long end = System.nanoTime() + nanos;
+		do {
+			result += op.run();
+			ops++;
+		} while(System.nanoTime() < end);
+		blackhole += result;
+		return ops;
+	}
+}
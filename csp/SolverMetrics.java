@@ -0,0 +1,227 @@
+package csp;
+import java.util.Locale;
+
+/**
+ * Counters and timings of a two-stage choice search.
+ *
+ * 	restarts: random schedules created, including the first.
+ * 	walks: courses walked through their values.
+ * 	evaluations: course values scored by their change in conflicts.
+ * 	breakouts: walks stuck at a local minimum that increased constraint weights, with constraint weighting on.
+ * 	restart, selection, & evaluation time: creating random schedules,
+ * 		choosing the course to walk, & walking its values.
+ * 	time to first solution: from the start of the search to the first schedule with no conflicts,
+ * 		-1 if none was found.
+ * 	restart conflict histogram: conflicts of each random schedule, in power of 2 buckets:
+ * 		bucket 0 counts 0 conflicts, bucket k counts 2^(k-1) to 2^k - 1 conflicts.
+ *
+ * An instantiation is updated by the thread running its search, without synchronization,
+ * so read it once the search has returned.
+ */
+public class SolverMetrics {
+	private static final int BUCKETS = 33;
+
+	private long restarts;
+	private long walks;
+	private long evaluations;
+	private long breakouts;
+	private long restartNanos;
+	private long selectionNanos;
+	private long evaluationNanos;
+	private long elapsedNanos;
+	private long firstSolutionNanos = -1;
+	private long[] restartConflicts = new long[BUCKETS];
+
+	SolverMetrics(){
+	}
+
+	/**
+	 * Creates a copy of other metrics.
+	 * @param other
+	 */
+	SolverMetrics(SolverMetrics other){
+		this.restarts = other.restarts;
+		this.walks = other.walks;
+		this.evaluations = other.evaluations;
+		this.breakouts = other.breakouts;
+		this.restartNanos = other.restartNanos;
+		this.selectionNanos = other.selectionNanos;
+		this.evaluationNanos = other.evaluationNanos;
+		this.elapsedNanos = other.elapsedNanos;
+		this.firstSolutionNanos = other.firstSolutionNanos;
+		this.restartConflicts = other.restartConflicts.clone();
+	}
+
+	/**
+	 * Records a random schedule and its conflicts.
+	 * @param conflicts
+	 * @param nanos time taken to create the schedule
+	 */
+	void addRestart(int conflicts, long nanos) {
+		this.restarts++;
+		this.restartNanos += nanos;
+		this.restartConflicts[bucket(conflicts)]++;
+	}
+	/**
+	 * Records choosing a course to walk.
+	 * @param nanos
+	 */
+	void addSelection(long nanos) {
+		this.selectionNanos += nanos;
+	}
+	/**
+	 * Records a course walked through its values.
+	 * @param evaluations values scored
+	 * @param nanos
+	 */
+	void addWalk(long evaluations, long nanos) {
+		this.walks++;
+		this.evaluations += evaluations;
+		this.evaluationNanos += nanos;
+	}
+	/**
+	 * Records a walk stuck at a local minimum increasing constraint weights.
+	 */
+	void addBreakout() {
+		this.breakouts++;
+	}
+	/**
+	 * Records a schedule with no conflicts being found, if it is the first.
+	 * @param nanos since the search started
+	 */
+	void solutionFound(long nanos) {
+		if(this.firstSolutionNanos == -1 || nanos < this.firstSolutionNanos) {
+			this.firstSolutionNanos = nanos;
+		}
+	}
+	void setElapsedNanos(long nanos) {
+		this.elapsedNanos = nanos;
+	}
+
+	/**
+	 * Adds the counts and times of other metrics, from a search chain run alongside this one.
+	 * Elapsed time is not added, and the earliest first solution is kept.
+	 * @param other
+	 */
+	void add(SolverMetrics other) {
+		this.restarts += other.restarts;
+		this.walks += other.walks;
+		this.evaluations += other.evaluations;
+		this.breakouts += other.breakouts;
+		this.restartNanos += other.restartNanos;
+		this.selectionNanos += other.selectionNanos;
+		this.evaluationNanos += other.evaluationNanos;
+		if(other.firstSolutionNanos != -1) {
+			solutionFound(other.firstSolutionNanos);
+		}
+		for(int i = 0; i < BUCKETS; i++) {
+			this.restartConflicts[i] += other.restartConflicts[i];
+		}
+	}
+
+	/**
+	 * Returns the histogram bucket of a conflict count.
+	 * @param conflicts
+	 * @return
+	 */
+	private static int bucket(int conflicts) {
+		return 32 - Integer.numberOfLeadingZeros(conflicts);
+	}
+
+	/**
+	 * Returns a copy of these metrics.
+	 * @return
+	 */
+	public SolverMetrics snapshot() {
+		return new SolverMetrics(this);
+	}
+
+	public long getRestarts() {
+		return this.restarts;
+	}
+	public long getWalks() {
+		return this.walks;
+	}
+	public long getEvaluations() {
+		return this.evaluations;
+	}
+	public long getBreakouts() {
+		return this.breakouts;
+	}
+	public long getRestartNanos() {
+		return this.restartNanos;
+	}
+	public long getSelectionNanos() {
+		return this.selectionNanos;
+	}
+	public long getEvaluationNanos() {
+		return this.evaluationNanos;
+	}
+	public long getElapsedNanos() {
+		return this.elapsedNanos;
+	}
+	/**
+	 * Returns the time from the start of the search to the first schedule with no conflicts.
+	 * @return nanoseconds, -1 if none was found
+	 */
+	public long getFirstSolutionNanos() {
+		return this.firstSolutionNanos;
+	}
+	/**
+	 * Returns the evaluations per second of elapsed time.
+	 * @return
+	 */
+	public double getEvaluationsPerSecond() {
+		if(this.elapsedNanos == 0) {
+			return 0;
+		}
+		return this.evaluations / (this.elapsedNanos / 1e9);
+	}
+	/**
+	 * Returns the number of random schedules in a histogram bucket.
+	 * @param bucket 0 for 0 conflicts, k for 2^(k-1) to 2^k - 1 conflicts
+	 * @return
+	 */
+	public long getRestartConflicts(int bucket) {
+		return this.restartConflicts[bucket];
+	}
+
+	/**
+	 * Returns these metrics as a JSON object.
+	 * The histogram only lists buckets with a count, each with its lowest and highest conflicts.
+	 * @return
+	 */
+	public String toJson() {
+		StringBuilder json = new StringBuilder();
+		json.append("{\"restarts\":").append(this.restarts)
+			.append(",\"walks\":").append(this.walks)
+			.append(",\"evaluations\":").append(this.evaluations)
+			.append(",\"breakouts\":").append(this.breakouts)
+			.append(",\"evaluationsPerSecond\":").append(String.format(Locale.ROOT, "%.1f", getEvaluationsPerSecond()))
+			.append(",\"restartNanos\":").append(this.restartNanos)
+			.append(",\"selectionNanos\":").append(this.selectionNanos)
+			.append(",\"evaluationNanos\":").append(this.evaluationNanos)
+			.append(",\"elapsedNanos\":").append(this.elapsedNanos)
+			.append(",\"firstSolutionNanos\":").append(this.firstSolutionNanos)
+			.append(",\"restartConflictHistogram\":[");
+		boolean first = true;
+		for(int i = 0; i < BUCKETS; i++) {
+			if(this.restartConflicts[i] == 0) {
+				continue;
+			}
+			long minimum = i == 0 ? 0 : 1L << (i - 1);
+			long maximum = i == 0 ? 0 : (1L << i) - 1;
+			json.append(first ? "" : ",")
+				.append("{\"min\":").append(minimum)
+				.append(",\"max\":").append(maximum)
+				.append(",\"count\":").append(this.restartConflicts[i]).append('}');
+			first = false;
+		}
+		json.append("]}");
+		return json.toString();
+	}
+
+	public String toString() {
+		return toJson();
+	}
+}
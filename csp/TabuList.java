@@ -0,0 +1,83 @@
+package csp;
+
+/**
+ * Tabu list of one search, for courses and for course value moves.
+ * 
+ * Each course, and each value of a course, is stamped with the iteration 
+ * it stops being tabu, so checking and adding are single array reads and writes.
+ * Tenures count from the iteration after the one something was added in,
+ * so a course added during a walk is tabu for exactly the next tenure walks.
+ * Clearing moves the iteration past every stamp instead of resetting the arrays.
+ */
+public class TabuList {
+	// course index  |  iteration the course stops being tabu
+	private long[] courseTabuUntil;
+	// course index, domain index  |  iteration the course stops being tabu at that value
+	private long[][] moveTabuUntil;
+	private int courseTenure;
+	private int moveTenure;
+	private long iteration;
+
+	/**
+	 * @param courseList courses of the search, by index.
+	 * @param courseTenure iterations after its walk a walked course stays tabu.
+	 * @param moveTenure iterations after its move a course stays tabu at a value it moved away from,
+	 * 		0 for no move tabu.
+	 */
+	TabuList(CourseList courseList, int courseTenure, int moveTenure){
+		this.courseTenure = courseTenure;
+		this.moveTenure = moveTenure;
+		this.courseTabuUntil = new long[courseList.size()];
+		this.moveTabuUntil = new long[courseList.size()][];
+		for(int i = 0; i < courseList.size(); i++) {
+			this.moveTabuUntil[i] = new long[courseList.get(i).getDomainSize()];
+		}
+	}
+
+	/**
+	 * Moves to the next iteration, ending the tenure of anything added that many iterations ago.
+	 */
+	public void nextIteration() {
+		this.iteration++;
+	}
+
+	/**
+	 * Ends the tenure of every course and move.
+	 */
+	public void clear() {
+		this.iteration += Math.max(this.courseTenure, this.moveTenure) + 1;
+	}
+
+	/**
+	 * Makes a course tabu for the course tenure, from the next iteration on.
+	 * @param course index
+	 */
+	public void addCourse(int course) {
+		this.courseTabuUntil[course] = this.iteration + 1 + this.courseTenure;
+	}
+
+	public boolean isCourseTabu(int course) {
+		return this.iteration < this.courseTabuUntil[course];
+	}
+
+	/**
+	 * Makes a value of a course tabu for the move tenure, from the next iteration on.
+	 * @param course index
+	 * @param domainIndex index of the value in the course domain
+	 */
+	public void addMove(int course, int domainIndex) {
+		this.moveTabuUntil[course][domainIndex] = this.iteration + 1 + this.moveTenure;
+	}
+
+	public boolean isMoveTabu(int course, int domainIndex) {
+		return this.iteration < this.moveTabuUntil[course][domainIndex];
+	}
+
+	public int getCourseTenure() {
+		return this.courseTenure;
+	}
+
+	public int getMoveTenure() {
+		return this.moveTenure;
+	}
+}
@@ -0,0 +1,35 @@
+package csp;
+
+/**
+ * Receives the intermediate schedules of a search.
+ * Implementations decide which schedules are kept and where,
+ * and only convert a schedule to a String when it is kept.
+ * 
+ * Implementations must be safe to use from several search threads.
+ */
+public interface TraceSink {
+
+	/**
+	 * Returns false if this sink discards every schedule.
+	 * @return
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Offers an intermediate schedule to this sink.
+	 * @param schedule
+	 */
+	void record(Schedule schedule);
+
+	/**
+	 * Returns the intermediate schedules kept in memory by this sink, one per line block.
+	 * @return
+	 */
+	String getTrace();
+
+	/**
+	 * Flushes and releases anything held by this sink.
+	 * Schedules recorded after closing are discarded.
+	 */
+	void close();
+}
@@ -1,4 +1,6 @@
 package csp;
+import java.io.File;
+import java.io.IOException;
 
 /**
  * Generalized utility methods,
@@ -6,18 +8,59 @@ package csp;
  *
  */
 public class Util {
-
-	private static String intermediateSchedules = "";
-	
-	
-	public static void intermediateTracker(String s) {
-		intermediateSchedules = intermediateSchedules.concat(s);
+	/**
+	 * Splits a line of an input file into its values, separated by whitespace.
+	 * @param line
+	 * @return values, empty for a blank line
+	 */
+	static String[] splitValues(String line) {
+		int count = 0;
+		for(int i = 0; i < line.length(); i++) {
+			if(!Character.isWhitespace(line.charAt(i))
+					&& (i == 0 || Character.isWhitespace(line.charAt(i - 1)))) {
+				count++;
+			}
+		}
+		String[] values = new String[count];
+		int start = -1;
+		count = 0;
+		for(int i = 0; i <= line.length(); i++) {
+			boolean whitespace = i == line.length() || Character.isWhitespace(line.charAt(i));
+			if(whitespace && start >= 0) {
+				values[count++] = line.substring(start, i);
+				start = -1;
+			}
+			else if(!whitespace && start < 0) {
+				start = i;
+			}
+		}
+		return values;
 	}
-	
-	public static String getTracker() {
-		return intermediateSchedules;
+
+	/**
+	 * Returns the error for a line of an input file that cannot be imported.
+	 * @param f the input file
+	 * @param lineNumber starting at 1
+	 * @param message
+	 * @return
+	 */
+	static IllegalArgumentException inputError(File f, int lineNumber, String message) {
+		return new IllegalArgumentException(f.getName() + " line " + lineNumber + ": " + message);
 	}
 
+	/**
+	 * Returns the error for an input file that could not be read to its end,
+	 * such as one missing, or not valid UTF-8, so no catalog is built from part of a file.
+	 * @param f the input file
+	 * @param lastLine last line read, 0 if none
+	 * @param e
+	 * @return
+	 */
+	static IllegalArgumentException readError(File f, int lastLine, IOException e) {
+		String where = lastLine == 0 ? f.getName() : f.getName() + " line " + lastLine;
+		return new IllegalArgumentException(where + ": cannot be read"
+				+ (lastLine == 0 ? "" : " after this line") + ", " + e, e);
+	}
 }
 enum Season {FALL, SPRING, SUMMER};
 enum Day{M,T,W,H,F,S,O;};
@@ -0,0 +1,495 @@
+package csp;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic catalogs for load testing: the 3 input files,
+ * in the formats CourseList, ConstraintList, & SemesterList import.
+ *
+ * Every course is first given a semester & day of its own, its planted value.
+ * Semesters are split into as many bands as the prerequisite depth,
+ * and each course past the first band gets prerequisites from earlier bands,
+ * so the prerequisite DAG has no chain longer than its depth,
+ * and the planted values satisfy every constraint.
+ * A course is offered in each season with a chance of 1 - seasonSparsity,
+ * on 1 to maxDaysPerSeason random days.
+ * When planting a solution, each course is also offered on its planted day, in its planted season,
+ * so the catalog is guaranteed to have a schedule with no conflicts;
+ * otherwise the catalog may have none.
+ *
+ * The same settings & seed always generate the same files.
+ *
+ * Generate a catalog with:
+ * 	java csp.WorkloadGenerator directory [setting=value...]
+ * for example: java csp.WorkloadGenerator gen courses=3000 depth=8 seed=7
+ */
+public class WorkloadGenerator {
+	private static final String[] SEASONS = {"Fall", "Spring", "Summer"};
+	private static final int DAYS = Day.values().length;
+
+	private int courseCount = 300;
+	private int semesterCount = 0;	// 0 for a third of the course count
+	private int depth = 6;
+	private double density = 2.0;
+	private double lessOrEqualFraction = 0.1;
+	private double seasonSparsity = 0.3;
+	private int maxDaysPerSeason = 3;
+	private long seed = 1;
+	private boolean plantSolution = true;
+
+	// course name  |  planted value, of the last catalog generated
+	private Map<String, Integer> plantedSolution = Collections.emptyMap();
+
+	WorkloadGenerator(){
+	}
+
+	/**
+	 * Generates a catalog to a directory.
+	 * Arguments: directory, then any of courses, semesters, depth, density, lessOrEqual,
+	 * seasonSparsity, maxDays, seed, & plant, each as setting=value.
+	 * @param args
+	 * @throws IOException if the files cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length < 1) {
+			System.out.println("Arguments: directory [courses=N] [semesters=N] [depth=N] [density=D] [lessOrEqual=D] "
+					+ "[seasonSparsity=D] [maxDays=N] [seed=N] [plant=true|false]");
+			return;
+		}
+		WorkloadGenerator generator = new WorkloadGenerator();
+		for(int i = 1; i < args.length; i++) {
+			generator.set(args[i]);
+		}
+		long start = System.nanoTime();
+		File directory = new File(args[0]);
+		generator.write(directory);
+		System.out.println(String.format("Generated %d courses & %d semesters to %s in %.0f ms%s",
+				generator.getCourseCount(), generator.getSemesterCount(), directory, (System.nanoTime() - start) / 1e6,
+				generator.isPlantSolution() ? ", with a planted solution in plantedSolution.txt." : "."));
+	}
+
+	/**
+	 * Sets one setting from a "setting=value" argument.
+	 * @param argument
+	 * @throws IllegalArgumentException if the setting is unknown or its value is not a number
+	 */
+	void set(String argument) {
+		String[] pair = argument.split("=", 2);
+		if(pair.length != 2) {
+			throw new IllegalArgumentException("expected setting=value, found " + argument);
+		}
+		try {
+			switch(pair[0]) {
+			case "courses":
+				setCourseCount(Integer.parseInt(pair[1]));
+				break;
+			case "semesters":
+				setSemesterCount(Integer.parseInt(pair[1]));
+				break;
+			case "depth":
+				setDepth(Integer.parseInt(pair[1]));
+				break;
+			case "density":
+				setDensity(Double.parseDouble(pair[1]));
+				break;
+			case "lessOrEqual":
+				setLessOrEqualFraction(Double.parseDouble(pair[1]));
+				break;
+			case "seasonSparsity":
+				setSeasonSparsity(Double.parseDouble(pair[1]));
+				break;
+			case "maxDays":
+				setMaxDaysPerSeason(Integer.parseInt(pair[1]));
+				break;
+			case "seed":
+				setSeed(Long.parseLong(pair[1]));
+				break;
+			case "plant":
+				setPlantSolution(Boolean.parseBoolean(pair[1]));
+				break;
+			default:
+				throw new IllegalArgumentException("unknown setting " + pair[0]);
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("setting " + pair[0] + " must be a number, found " + pair[1]);
+		}
+	}
+
+	/**
+	 * Generates a catalog & writes classes.txt, constraints.txt, & semesterMapping.txt to a directory,
+	 * created if needed, and plantedSolution.txt when planting a solution:
+	 * one "course value" pair per line, the format of SolutionCache files.
+	 * @param directory
+	 * @throws IOException if a file cannot be written
+	 * @throws IllegalArgumentException if a setting is out of range
+	 */
+	public void write(File directory) throws IOException {
+		checkSettings();
+		SplittableRandom r = new SplittableRandom(this.seed);
+		int semesters = getSemesterCount();
+		int digits = Integer.toString(this.courseCount - 1).length();
+
+		// course index  |  planted semester index * DAYS + day, in semester order
+		int[] slots = plantSlots(r, semesters);
+		// course index  |  name number, so names do not give away the planted order
+		int[] names = new int[this.courseCount];
+		for(int i = 0; i < names.length; i++) {
+			names[i] = i;
+		}
+		shuffle(names, r);
+		String[] courseNames = new String[this.courseCount];
+		for(int i = 0; i < courseNames.length; i++) {
+			courseNames[i] = String.format("Gen%0" + digits + "d", names[i]);
+		}
+
+		directory.mkdirs();
+		writeSemesters(new File(directory, "semesterMapping.txt"), semesters);
+		writeCourses(new File(directory, "classes.txt"), r, slots, names, courseNames);
+		writeConstraints(new File(directory, "constraints.txt"), r, slots, semesters, courseNames);
+
+		Map<String, Integer> planted = new HashMap<>();
+		if(this.plantSolution) {
+			for(int i = 0; i < this.courseCount; i++) {
+				planted.put(courseNames[i], semesterID(slots[i] / DAYS) * 10 + slots[i] % DAYS);
+			}
+			writePlantedSolution(new File(directory, "plantedSolution.txt"), courseNames, names, planted);
+		}
+		else {
+			new File(directory, "plantedSolution.txt").delete();
+		}
+		this.plantedSolution = Collections.unmodifiableMap(planted);
+	}
+
+	/**
+	 * Assistant method to write.
+	 * @throws IllegalArgumentException if a setting is out of range
+	 */
+	private void checkSettings() {
+		if(this.courseCount < 1 || getSemesterCount() < 1 || this.depth < 1) {
+			throw new IllegalArgumentException("courses, semesters, & depth must be at least 1");
+		}
+		if(this.density < 0 || this.lessOrEqualFraction < 0 || this.lessOrEqualFraction > 1
+				|| this.seasonSparsity < 0 || this.seasonSparsity > 1) {
+			throw new IllegalArgumentException("density must be at least 0, lessOrEqual & seasonSparsity from 0 to 1");
+		}
+		if(this.maxDaysPerSeason < 1 || this.maxDaysPerSeason > DAYS) {
+			throw new IllegalArgumentException("maxDays must be from 1 to " + DAYS);
+		}
+		if((long) getSemesterCount() * DAYS < this.courseCount) {
+			throw new IllegalArgumentException(this.courseCount + " courses need at least "
+					+ (this.courseCount + DAYS - 1) / DAYS + " semesters, one day of a semester each");
+		}
+	}
+
+	/**
+	 * Assistant method to write.
+	 * Picks a distinct semester & day for each course, with a partial shuffle of every slot,
+	 * and sorts them so courses are in semester order.
+	 * @param r
+	 * @param semesters
+	 * @return slot of each course, semester index * DAYS + day
+	 */
+	private int[] plantSlots(SplittableRandom r, int semesters) {
+		int[] all = new int[semesters * DAYS];
+		for(int i = 0; i < all.length; i++) {
+			all[i] = i;
+		}
+		for(int i = 0; i < this.courseCount; i++) {
+			int j = i + r.nextInt(all.length - i);
+			int swap = all[i];
+			all[i] = all[j];
+			all[j] = swap;
+		}
+		int[] slots = Arrays.copyOf(all, this.courseCount);
+		Arrays.sort(slots);
+		return slots;
+	}
+
+	/**
+	 * Assistant method to write.
+	 * Writes every semester from Fall 2018, keeping the ID format of the input files:
+	 * a Fall of year Y has ID (Y+1)3, Spring Y has ID Y5, and Summer Y has ID (Y+1)1.
+	 * @param f
+	 * @param semesters
+	 * @throws IOException
+	 */
+	private static void writeSemesters(File f, int semesters) throws IOException {
+		try(BufferedWriter writer = Files.newBufferedWriter(f.toPath(), StandardCharsets.UTF_8)) {
+			for(int i = 0; i < semesters; i++) {
+				writer.write(SEASONS[i % 3] + " " + semesterYear(i) + "\t" + semesterID(i) + "\n");
+			}
+		}
+	}
+	private static int semesterYear(int index) {
+		return 2018 + (index + 2) / 3;
+	}
+	private static int semesterID(int index) {
+		int year = semesterYear(index);
+		switch(index % 3) {
+		case 0:
+			return (year + 1) * 10 + 3;
+		case 1:
+			return year * 10 + 5;
+		default:
+			return (year + 1) * 10 + 1;
+		}
+	}
+
+	/**
+	 * Assistant method to write.
+	 * Writes the days each course is offered by season, in name order.
+	 * @param f
+	 * @param r
+	 * @param slots planted slot of each course
+	 * @param names name number of each course
+	 * @param courseNames
+	 * @throws IOException
+	 */
+	private void writeCourses(File f, SplittableRandom r, int[] slots, int[] names, String[] courseNames) throws IOException {
+		String[] lines = new String[this.courseCount];
+		Day[] days = Day.values();
+		StringBuilder line = new StringBuilder();
+		for(int i = 0; i < this.courseCount; i++) {
+			line.setLength(0);
+			line.append(courseNames[i]);
+			int plantedSeason = (slots[i] / DAYS) % 3;
+			for(int season = 0; season < 3; season++) {
+				// bit d set if offered on day d
+				int offered = 0;
+				boolean planted = this.plantSolution && season == plantedSeason;
+				if(planted) {
+					offered = 1 << (slots[i] % DAYS);
+				}
+				if(planted || r.nextDouble() >= this.seasonSparsity) {
+					int dayCount = 1 + r.nextInt(this.maxDaysPerSeason);
+					while(Integer.bitCount(offered) < dayCount) {
+						offered |= 1 << r.nextInt(DAYS);
+					}
+				}
+				line.append('\t');
+				if(offered == 0) {
+					line.append('-');
+				}
+				for(int d = 0; d < DAYS; d++) {
+					if((offered & (1 << d)) != 0) {
+						line.append(days[d].name());
+					}
+				}
+			}
+			lines[names[i]] = line.toString();
+		}
+		try(BufferedWriter writer = Files.newBufferedWriter(f.toPath(), StandardCharsets.UTF_8)) {
+			writer.write("COURSE\tFall\tSpring\tSummer\n");
+			for(String s : lines) {
+				writer.write(s);
+				writer.write('\n');
+			}
+		}
+	}
+
+	/**
+	 * Assistant method to write.
+	 * Writes the prerequisites of each course past the first band of semesters:
+	 * density of them on average, each from the band before with a chance of one half,
+	 * otherwise from any earlier band, and each "<=" with a chance of lessOrEqualFraction.
+	 * @param f
+	 * @param r
+	 * @param slots planted slot of each course, in semester order
+	 * @param semesters
+	 * @param courseNames
+	 * @throws IOException
+	 */
+	private void writeConstraints(File f, SplittableRandom r, int[] slots, int semesters, String[] courseNames) throws IOException {
+		// band  |  index of its first course, as courses are in semester order
+		int[] bandStart = new int[this.depth + 1];
+		int band = 0;
+		for(int i = 0; i < this.courseCount; i++) {
+			int courseBand = (int) ((long) (slots[i] / DAYS) * this.depth / semesters);
+			while(band < courseBand) {
+				bandStart[++band] = i;
+			}
+		}
+		while(band < this.depth) {
+			bandStart[++band] = this.courseCount;
+		}
+
+		int whole = (int) this.density;
+		double fraction = this.density - whole;
+		int[] chosen = new int[whole + 1];
+		try(BufferedWriter writer = Files.newBufferedWriter(f.toPath(), StandardCharsets.UTF_8)) {
+			band = 0;
+			for(int i = 0; i < this.courseCount; i++) {
+				while(band < this.depth - 1 && i >= bandStart[band + 1]) {
+					band++;
+				}
+				if(band == 0) {
+					continue;
+				}
+				int earlier = bandStart[band];
+				int previous = bandStart[band - 1];
+				if(earlier == 0) {
+					continue;
+				}
+				int prerequisites = Math.min(whole + (r.nextDouble() < fraction ? 1 : 0), earlier);
+				int count = 0;
+				// a few tries at distinct prerequisites, so a small band cannot loop forever
+				for(int attempt = 0; count < prerequisites && attempt < prerequisites * 4; attempt++) {
+					int p = r.nextBoolean() && previous < earlier
+							? previous + r.nextInt(earlier - previous)
+							: r.nextInt(earlier);
+					boolean duplicate = false;
+					for(int j = 0; j < count; j++) {
+						duplicate |= chosen[j] == p;
+					}
+					if(!duplicate) {
+						chosen[count++] = p;
+						String op = r.nextDouble() < this.lessOrEqualFraction ? "<=" : "<";
+						writer.write(courseNames[p] + " " + op + " " + courseNames[i] + "\n");
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Assistant method to write.
+	 * Writes the planted solution in name order.
+	 * @param f
+	 * @param courseNames
+	 * @param names name number of each course
+	 * @param planted
+	 * @throws IOException
+	 */
+	private static void writePlantedSolution(File f, String[] courseNames, int[] names,
+			Map<String, Integer> planted) throws IOException {
+		String[] byName = new String[courseNames.length];
+		for(int i = 0; i < courseNames.length; i++) {
+			byName[names[i]] = courseNames[i];
+		}
+		try(BufferedWriter writer = Files.newBufferedWriter(f.toPath(), StandardCharsets.UTF_8)) {
+			for(String name : byName) {
+				writer.write(name + " " + planted.get(name) + "\n");
+			}
+		}
+	}
+
+	private static void shuffle(int[] a, SplittableRandom r) {
+		for(int i = a.length - 1; i > 0; i--) {
+			int j = r.nextInt(i + 1);
+			int swap = a[i];
+			a[i] = a[j];
+			a[j] = swap;
+		}
+	}
+
+	/**
+	 * Returns about how many course values the catalog of these settings has,
+	 * from the share of seasons offered & the expected days offered per season.
+	 * @return
+	 */
+	public long getExpectedValues() {
+		// a planted season is always offered
+		double offered = this.plantSolution ? (2 * (1 - this.seasonSparsity) + 1) / 3 : 1 - this.seasonSparsity;
+		return (long) ((double) this.courseCount * getSemesterCount() * offered * (this.maxDaysPerSeason + 1) / 2);
+	}
+
+	/**
+	 * Returns the planted value of each course of the last catalog written,
+	 * empty if none was planted.
+	 * @return course name  |  semesterID * 10 + day
+	 */
+	public Map<String, Integer> getPlantedSolution() {
+		return this.plantedSolution;
+	}
+
+	public int getCourseCount() {
+		return this.courseCount;
+	}
+	public void setCourseCount(int courseCount) {
+		this.courseCount = courseCount;
+	}
+	/**
+	 * Returns the number of semesters: the one set, or a third of the course count if none was set.
+	 * @return
+	 */
+	public int getSemesterCount() {
+		if(this.semesterCount == 0) {
+			return Math.max(3, (this.courseCount + 2) / 3);
+		}
+		return this.semesterCount;
+	}
+	/**
+	 * @param semesterCount semester horizon, 0 for a third of the course count
+	 */
+	public void setSemesterCount(int semesterCount) {
+		this.semesterCount = semesterCount;
+	}
+	public int getDepth() {
+		return this.depth;
+	}
+	/**
+	 * @param depth most courses in a chain of prerequisites
+	 */
+	public void setDepth(int depth) {
+		this.depth = depth;
+	}
+	public double getDensity() {
+		return this.density;
+	}
+	/**
+	 * @param density average prerequisites of each course past the first band of semesters
+	 */
+	public void setDensity(double density) {
+		this.density = density;
+	}
+	public double getLessOrEqualFraction() {
+		return this.lessOrEqualFraction;
+	}
+	/**
+	 * @param lessOrEqualFraction share of constraints that are "<=" rather than "<"
+	 */
+	public void setLessOrEqualFraction(double lessOrEqualFraction) {
+		this.lessOrEqualFraction = lessOrEqualFraction;
+	}
+	public double getSeasonSparsity() {
+		return this.seasonSparsity;
+	}
+	/**
+	 * @param seasonSparsity chance a course is not offered in a season
+	 */
+	public void setSeasonSparsity(double seasonSparsity) {
+		this.seasonSparsity = seasonSparsity;
+	}
+	public int getMaxDaysPerSeason() {
+		return this.maxDaysPerSeason;
+	}
+	/**
+	 * @param maxDaysPerSeason most days a course is offered in a season, from 1 to 7
+	 */
+	public void setMaxDaysPerSeason(int maxDaysPerSeason) {
+		this.maxDaysPerSeason = maxDaysPerSeason;
+	}
+	public long getSeed() {
+		return this.seed;
+	}
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+	public boolean isPlantSolution() {
+		return this.plantSolution;
+	}
+	/**
+	 * @param plantSolution true to guarantee the catalog has a schedule with no conflicts
+	 */
+	public void setPlantSolution(boolean plantSolution) {
+		this.plantSolution = plantSolution;
+	}
+}